@@ -0,0 +1,94 @@
+package com.github.tylerwilliams.tetris;
+
+import com.github.tylerwilliams.tetris.bot.PlacementBot;
+import com.github.tylerwilliams.tetris.bot.SearchBoard;
+import com.github.tylerwilliams.tetris.sim.RandomPlacementPolicy;
+
+/**
+ * Builds realistic game states for benchmarks. A bot plays from a fixed seed, with an occasional random placement so
+ * the stack ends up with the kind of ragged surface and covered holes a human game has, until the stack reaches the
+ * requested height.
+ */
+public final class BenchmarkGames {
+    public static final int DEFAULT_STACK_HEIGHT = 8;
+
+    private static final double RANDOM_PLACEMENT_CHANCE = 0.1;
+    private static final int MAX_PIECES = 1000;
+    private static final int GARBAGE_GAPS_PER_ROW = 2;
+
+    private BenchmarkGames() {
+    }
+
+    public static TetrisGame midGame(long seed) {
+        return midGame(seed, DEFAULT_STACK_HEIGHT);
+    }
+
+    public static TetrisGame midGame(long seed, int stackHeight) {
+        TetrisGame game = new TetrisGame(seed);
+        game.setDifficulty(Difficulty.MEDIUM);
+        game.setGameMode(GameMode.FREE_PLAY);
+        game.reset(seed);
+
+        PlacementBot bot = new PlacementBot();
+        RandomPlacementPolicy randomPolicy = new RandomPlacementPolicy();
+        GameRandom random = new GameRandom(seed);
+        SearchBoard board = new SearchBoard();
+
+        for (int piece = 0; piece < MAX_PIECES && game.isRunning(); piece++) {
+            board.copyFrom(game);
+            if (board.getRows() - highestColumnTop(board) >= stackHeight) {
+                break;
+            }
+
+            if (random.nextDouble() < RANDOM_PLACEMENT_CHANCE) {
+                randomPolicy.onTetronimoSpawned(game, random);
+            } else {
+                bot.play(game);
+            }
+        }
+
+        if (!game.isRunning()) {
+            throw new IllegalStateException("Game " + seed + " ended before reaching a stack height of " + stackHeight);
+        }
+        return game;
+    }
+
+    /**
+     * Builds a game on a board of any size, including ones too wide for the bot, by filling the bottom rows with
+     * garbage: every row is full apart from a few randomly placed gaps, so no row can be cleared by accident. The
+     * active tetronimo is left at its spawn position
+     */
+    public static TetrisGame garbageStack(BoardSize boardSize, long seed, int stackHeight) {
+        TetrisGame game = new TetrisGame(seed, boardSize);
+        game.setDifficulty(Difficulty.MEDIUM);
+        game.setGameMode(GameMode.FREE_PLAY);
+        game.reset(seed);
+
+        GameRandom random = new GameRandom(seed);
+        for (int row = boardSize.totalRows() - stackHeight; row < boardSize.totalRows(); row++) {
+            for (int column = 0; column < boardSize.columns(); column++) {
+                game.setColor(row, column, TetronimoType.getRandomColor(random));
+            }
+            for (int gap = 0; gap < GARBAGE_GAPS_PER_ROW; gap++) {
+                game.clearSquare(row, random.nextInt(boardSize.columns()));
+            }
+        }
+        return game;
+    }
+
+    /**
+     * @param boardSize Size written as columns x rows, such as "10x20"
+     */
+    public static BoardSize parseBoardSize(String boardSize) {
+        String[] dimensions = boardSize.split("x");
+        return new BoardSize(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+    }
+
+    private static int highestColumnTop(SearchBoard board) {
+        int highest = board.getRows();
+        for (int column = 0; column < board.getColumns(); column++) {
+            highest = Math.min(highest, board.getColumnTop(column));
+        }
+        return highest;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.tylerwilliams.tetris;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-input engine operations across board sizes, from the classic board up to wide and tall sandbox boards. None of
+ * these should get slower as the board grows: collision checks only look at the rows and columns under the tetronimo,
+ * and a window of squares only reads the stack rows inside it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardScalingBenchmark {
+    private static final long SEED = 1;
+    private static final int STACK_HEIGHT = 8;
+
+    @Param({"10x20", "64x20", "200x20", "10x1000", "200x1000"})
+    String boardSize;
+
+    TetrisGame game;
+    int windowTopRow, windowBottomRow;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkGames.garbageStack(BenchmarkGames.parseBoardSize(boardSize), SEED, STACK_HEIGHT);
+
+        // A classic board's worth of rows at the bottom of the board, which is what a scrolled view of the stack shows
+        windowBottomRow = game.getBoardSize().totalRows() - 1;
+        windowTopRow = windowBottomRow - BoardSize.CLASSIC.rows() + 1;
+    }
+
+    @Benchmark
+    public void moveLeftThenRight(Blackhole blackhole) {
+        blackhole.consume(game.moveActiveTetronimoLeft());
+        blackhole.consume(game.moveActiveTetronimoRight());
+    }
+
+    @Benchmark
+    public void rotateClockwiseThenBack(Blackhole blackhole) {
+        blackhole.consume(game.rotateActiveTetronimo(Rotation.CLOCKWISE));
+        blackhole.consume(game.rotateActiveTetronimo(Rotation.COUNTER_CLOCKWISE));
+    }
+
+    @Benchmark
+    public Collection<ColoredSquare> windowSquares() {
+        return game.getColoredSquares(windowTopRow, windowBottomRow);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.tylerwilliams.tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the squares to paint for a mid-game board, with and without ghost squares
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColoredSquaresBenchmark {
+
+    @Param({"1", "2", "3"})
+    long seed;
+
+    @Param({"true", "false"})
+    boolean ghostSquares;
+
+    TetrisGame game;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkGames.midGame(seed);
+        game.setGhostSquaresEnabled(ghostSquares);
+    }
+
+    /**
+     * An unchanged position, as on every repaint between inputs
+     */
+    @Benchmark
+    public Collection<ColoredSquare> unchanged() {
+        return game.getColoredSquares();
+    }
+
+    /**
+     * Right after the active tetronimo moved, which invalidates any cached ghost squares
+     */
+    @Benchmark
+    public Collection<ColoredSquare> afterMove() {
+        if (!game.moveActiveTetronimoLeft()) {
+            game.moveActiveTetronimoRight();
+        }
+        return game.getColoredSquares();
+    }
+}
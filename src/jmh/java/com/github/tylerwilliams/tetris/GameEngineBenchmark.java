@@ -0,0 +1,46 @@
+package com.github.tylerwilliams.tetris;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-input engine operations on a mid-game board. Moves and rotations are benchmarked in pairs that undo each other,
+ * so the game stays in the same state however many times they run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEngineBenchmark {
+
+    @Param({"1", "2", "3"})
+    long seed;
+
+    TetrisGame game;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkGames.midGame(seed);
+    }
+
+    @Benchmark
+    public void moveLeftThenRight(Blackhole blackhole) {
+        blackhole.consume(game.moveActiveTetronimoLeft());
+        blackhole.consume(game.moveActiveTetronimoRight());
+    }
+
+    @Benchmark
+    public void rotateClockwiseThenBack(Blackhole blackhole) {
+        blackhole.consume(game.rotateActiveTetronimo(Rotation.CLOCKWISE));
+        blackhole.consume(game.rotateActiveTetronimo(Rotation.COUNTER_CLOCKWISE));
+    }
+
+    @Benchmark
+    public Tetronimo conveyorNext() {
+        return game.getConveyor().next();
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.tylerwilliams.tetris;
+
+import com.github.tylerwilliams.tetris.bot.Placement;
+import com.github.tylerwilliams.tetris.bot.PlacementBot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locking a tetronimo that has landed on a mid-game stack, including clearing any lines it completes and spawning the
+ * next one. The bot positions each tetronimo outside the measured region, so the benchmark sees the same mix of line
+ * clears a real game would. The game restarts from its seed whenever it gets too tall to continue.
+ * <p>
+ * Positioning happens in an invocation level setup, which adds timing overhead JMH can't fully subtract at this
+ * scale, so compare results against each other rather than reading them as absolute costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockBenchmark {
+
+    @Param({"1", "2", "3"})
+    long seed;
+
+    TetrisGame game;
+    PlacementBot bot;
+
+    @Setup(Level.Iteration)
+    public void startGame() {
+        game = BenchmarkGames.midGame(seed);
+        bot = new PlacementBot();
+    }
+
+    @Setup(Level.Invocation)
+    public void positionNextTetronimo() {
+        if (!game.isRunning()) {
+            startGame();
+        }
+
+        List<GameInput> inputs = bot.decide(game).map(Placement::inputs).orElse(List.of(GameInput.HARD_DROP));
+        for (GameInput input : inputs.subList(0, inputs.size() - 1)) {
+            game.apply(input);
+        }
+        game.dropCurrentTetronimo();
+    }
+
+    @Benchmark
+    public LineClear lock() {
+        game.tryMoveActiveTetronimoDown();
+        return game.getLastLineClear();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.tylerwilliams.tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard reads against files of increasing size. Scores are spread evenly over every difficulty and game mode and
+ * generated from a fixed seed, so each run reads the same file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ScoreRepositoryBenchmark {
+    private static final LocalDateTime FIRST_SCORE_DATE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int entries;
+
+    Path leaderboardFile;
+    int medianPoints;
+
+    @Setup
+    public void writeLeaderboard() throws IOException {
+        GameRandom random = new GameRandom(entries);
+        Difficulty[] difficulties = Difficulty.values();
+        GameMode[] gameModes = GameMode.values();
+
+        List<Score> scores = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            int linesCleared = random.nextInt(250);
+            scores.add(new Score(linesCleared * 12, linesCleared, i + 1, 1 + linesCleared / 25,
+                    Duration.ofSeconds(random.nextInt(3600)), "Player " + random.nextInt(1000),
+                    difficulties[i % difficulties.length], gameModes[i / difficulties.length % gameModes.length],
+                    random.nextBoolean(), FIRST_SCORE_DATE.plusMinutes(i)));
+        }
+        medianPoints = 125 * 12;
+
+        leaderboardFile = Files.createTempFile("leaderboard", ".bench");
+        ScoreRepository.writeScoresToDisk(leaderboardFile, scores);
+    }
+
+    @TearDown
+    public void deleteLeaderboard() throws IOException {
+        Files.deleteIfExists(leaderboardFile);
+    }
+
+    @Benchmark
+    public List<Score> getScores() throws IOException {
+        return ScoreRepository.getScores(leaderboardFile, Difficulty.MEDIUM, GameMode.CAMPAIGN);
+    }
+
+    @Benchmark
+    public int determineRank() throws IOException {
+        return ScoreRepository.determineRank(leaderboardFile, medianPoints, Difficulty.MEDIUM, GameMode.CAMPAIGN, LocalDateTime.now());
+    }
+}
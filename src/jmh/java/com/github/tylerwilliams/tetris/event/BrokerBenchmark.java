@@ -0,0 +1,89 @@
+package com.github.tylerwilliams.tetris.event;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost to the publishing thread of publishing one event to a single listener under each delivery policy. Background
+ * results show only what the game tick pays; the background dispatch stats printed at teardown show how far behind the
+ * consumer fell and how many events it had to drop to keep up. The benchmark thread isn't the EDT, so EDT results are
+ * for the queue that hands events over to it. Publishing flat out outruns the EDT, so most of those events overflow the
+ * queue; {@link #publishBurst} publishes a game tick's worth of events and waits for them to be delivered, which is the
+ * rate the game actually publishes at, and includes the event Swing allocates each time the EDT is woken.
+ * <p>
+ * Scores climb past the range {@link Integer#valueOf} caches, so a plain listener costs a boxed Integer per event while
+ * an {@link IntEventListener} shouldn't allocate at all. Run with the gc profiler to compare.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BrokerBenchmark {
+    private static final int BURST_EVENTS = 4;
+
+    @Param({"INLINE", "EVENT_DISPATCH_THREAD", "BACKGROUND"})
+    DeliveryPolicy policy;
+
+    @Param({"BLOCKING", "SLEEPING"})
+    WaitStrategy waitStrategy;
+
+    @Param({"true", "false"})
+    boolean intListener;
+
+    Broker broker;
+    int score;
+    final AtomicLong delivered = new AtomicLong();
+    long published;
+
+    @Setup(Level.Trial)
+    public void subscribe(Blackhole blackhole) {
+        broker = new Broker();
+        if (policy == DeliveryPolicy.BACKGROUND) {
+            broker.startBackgroundDispatch(Broker.DEFAULT_RING_BUFFER_CAPACITY, 1, waitStrategy);
+        }
+        if (intListener) {
+            broker.subscribeInt(TetrisEvent.SCORE_CHANGED, policy, value -> {
+                blackhole.consume(value);
+                delivered.incrementAndGet();
+            });
+        } else {
+            broker.subscribe(TetrisEvent.SCORE_CHANGED, policy, value -> {
+                blackhole.consume(value);
+                delivered.incrementAndGet();
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.println();
+        System.out.println(broker.getBackgroundDispatchStats());
+        broker.stopBackgroundDispatch();
+    }
+
+    @Benchmark
+    public void publish() {
+        broker.publish(TetrisEvent.SCORE_CHANGED, score += 10);
+    }
+
+    /**
+     * Publishes a few events and waits until the listener has seen them all, so the queues never fill up
+     */
+    @Benchmark
+    @OperationsPerInvocation(BURST_EVENTS)
+    public void publishBurst() {
+        for (int i = 0; i < BURST_EVENTS; i++) {
+            broker.publish(TetrisEvent.SCORE_CHANGED, score += 10);
+        }
+        published += BURST_EVENTS;
+
+        while (delivered.get() < published) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import com.github.tylerwilliams.tetris.BenchmarkGames;
+import com.github.tylerwilliams.tetris.TetrisGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full repaint of the game board into an offscreen image the size of the on-screen board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ColorGridPaintBenchmark {
+    private static final int CELL_DIMENSION = 40;
+
+    @Param({"1", "2", "3"})
+    long seed;
+
+    @Param({"true", "false"})
+    boolean ghostSquares;
+
+    GameBoardGrid grid;
+    BufferedImage image;
+    Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        TetrisGame game = BenchmarkGames.midGame(seed);
+        game.setGhostSquaresEnabled(ghostSquares);
+
+        grid = new GameBoardGrid(game, CELL_DIMENSION);
+        Dimension size = grid.getPreferredSize();
+        grid.setSize(size);
+
+        image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        grid.paintComponent(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import com.github.tylerwilliams.tetris.BenchmarkGames;
+import com.github.tylerwilliams.tetris.BoardSize;
+import com.github.tylerwilliams.tetris.TetrisGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repaint of a classic board sized view onto the bottom of boards of various sizes, as a scroll pane would ask for.
+ * The cost should follow the size of the view rather than the size of the board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ScrolledBoardPaintBenchmark {
+    private static final long SEED = 1;
+    private static final int STACK_HEIGHT = 8;
+    private static final int CELL_DIMENSION = 40;
+
+    @Param({"10x20", "64x20", "200x20", "10x1000", "200x1000"})
+    String boardSize;
+
+    GameBoardGrid grid;
+    BufferedImage image;
+    Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        TetrisGame game = BenchmarkGames.garbageStack(BenchmarkGames.parseBoardSize(boardSize), SEED, STACK_HEIGHT);
+
+        grid = new GameBoardGrid(game, CELL_DIMENSION);
+        Dimension size = grid.getPreferredSize();
+        grid.setSize(size);
+
+        // The view is translated so the grid paints its bottom left corner into the image, like a scrolled viewport
+        int viewWidth = BoardSize.CLASSIC.columns() * CELL_DIMENSION;
+        int viewHeight = BoardSize.CLASSIC.rows() * CELL_DIMENSION;
+        image = new BufferedImage(viewWidth, viewHeight, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        graphics.translate(0, viewHeight - size.height);
+        graphics.clipRect(0, size.height - viewHeight, viewWidth, viewHeight);
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        grid.paintComponent(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,575 @@
+package com.github.tylerwilliams.tetris;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bitboard model of the squares persisted to the game board. Occupancy is stored as a run of 64 bit words per row (bit
+ * N of word W set means column 64W + N is filled) so collision checks are plain mask operations however wide the board
+ * is, and a count of the occupied squares in each row makes the full-row check a single comparison. Colors are kept in
+ * a separate plane of compact palette indexes which is only consulted when rendering. A skyline of the highest occupied
+ * row in each column is maintained alongside so drop distances can usually be found without probing row by row.
+ * <p>
+ * Everything above the top of the stack is known to be empty, so clearing, line removal and collecting squares only
+ * ever touch the rows between the stack top and the bottom of the board.
+ * <p>
+ * {@link #snapshot Snapshots} share color rows with the board rather than copying them. Taking one just bumps a
+ * generation counter, which marks every row as shared; the board then copies a row the first time it writes to it
+ * afterwards. Only the rows that change between snapshots are ever duplicated.
+ */
+final class Board {
+    private static final byte EMPTY = 0;
+
+    private final int rows, columns;
+    private final int wordsPerRow;
+    private final long[] occupancy; // wordsPerRow consecutive words for each row
+    private final int[] rowCounts; // number of occupied squares in each row
+    private final byte[][] colorIndexes;
+    private final int[] rowOwners; // generation each color row was created in. Rows from earlier generations are shared
+    private int generation;
+    private List<Color> palette; // never modified in place, since snapshots hold on to it
+    private final int[] columnTops; // row of the highest occupied square in each column, or 'rows' if the column is empty
+    private int stackTop; // highest row containing any occupied square, or 'rows' if the board is empty
+    private int version;
+
+    Board(int rows, int columns) {
+        if (rows < 1 || columns < 1) {
+            throw new IllegalArgumentException("Board must have at least one row and one column");
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.wordsPerRow = (columns + Long.SIZE - 1) / Long.SIZE;
+        this.occupancy = new long[rows * wordsPerRow];
+        this.rowCounts = new int[rows];
+        this.colorIndexes = new byte[rows][columns];
+        this.rowOwners = new int[rows];
+        this.columnTops = new int[columns];
+        Arrays.fill(columnTops, rows);
+        this.stackTop = rows;
+
+        // Index 0 is reserved for empty squares. Tetronimo colors are registered up front so the common case never
+        // has to grow the palette
+        List<Color> initialPalette = new ArrayList<>();
+        initialPalette.add(null);
+        for (TetronimoType type : TetronimoType.values()) {
+            initialPalette.add(type.getColor());
+        }
+        this.palette = Collections.unmodifiableList(initialPalette);
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return A counter which changes every time the contents of this board change
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Row of the highest occupied square in the given column, or the number of rows if the column is empty
+     */
+    int getColumnTop(int column) {
+        return columnTops[column];
+    }
+
+    /**
+     * @return Highest row containing any occupied square, or the number of rows if the board is empty
+     */
+    int getStackTop() {
+        return stackTop;
+    }
+
+    /**
+     * @return Occupancy mask of 64 columns of the given row, where bit N is set if column 64 * word + N is occupied
+     */
+    long getRowOccupancy(int row, int word) {
+        return occupancy[row * wordsPerRow + word];
+    }
+
+    boolean isEmpty() {
+        return stackTop == rows;
+    }
+
+    boolean isInBounds(int row, int column) {
+        return row >= 0 && row < rows && column >= 0 && column < columns;
+    }
+
+    boolean isOpenAndInBounds(int row, int column) {
+        return isInBounds(row, column) && !isOccupied(row, column);
+    }
+
+    private boolean isOccupied(int row, int column) {
+        return (occupancy[row * wordsPerRow + (column >>> 6)] & (1L << column)) != 0;
+    }
+
+    /**
+     * @return True if every square of the given shape anchored at the given position is in bounds and unoccupied
+     */
+    boolean fits(TetronimoShape shape, int row, int column) {
+        int topRow = row + shape.getTopOffset();
+        int leftColumn = column + shape.getLeftOffset();
+
+        if (topRow < 0 || row + shape.getBottomOffset() >= rows || leftColumn < 0 || column + shape.getRightOffset() >= columns) {
+            return false;
+        }
+
+        // Boards up to 64 columns wide, which includes the classic board, keep a row per word and never straddle one
+        if (wordsPerRow == 1) {
+            for (int maskRow = 0; maskRow < shape.getHeight(); maskRow++) {
+                if ((occupancy[topRow + maskRow] & (shape.getRowMask(maskRow) << leftColumn)) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int word = leftColumn >>> 6;
+        int shift = leftColumn & (Long.SIZE - 1);
+        for (int maskRow = 0; maskRow < shape.getHeight(); maskRow++) {
+            int index = (topRow + maskRow) * wordsPerRow + word;
+            long rowMask = shape.getRowMask(maskRow);
+            if ((occupancy[index] & (rowMask << shift)) != 0) {
+                return false;
+            }
+
+            // A shape straddling a word boundary spills its high columns into the next word. The bounds check above
+            // guarantees that word exists whenever the spill is non-empty
+            if (shift != 0) {
+                long spill = rowMask >>> (Long.SIZE - shift);
+                if (spill != 0 && (occupancy[index + 1] & spill) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates how many rows the given shape can fall from its current position before colliding. When every column
+     * of the shape is above the skyline this is a handful of comparisons against the shape's bottom profile; if the
+     * shape is tucked under an overhang it falls back to probing row by row.
+     */
+    int dropDistance(TetronimoShape shape, int row, int column) {
+        int leftColumn = column + shape.getLeftOffset();
+        int distance = Integer.MAX_VALUE;
+
+        for (int maskColumn = 0; maskColumn < shape.getWidth(); maskColumn++) {
+            int shapeBottom = row + shape.getColumnBottom(maskColumn);
+            int columnTop = columnTops[leftColumn + maskColumn];
+
+            if (shapeBottom >= columnTop) {
+                return probeDropDistance(shape, row, column);
+            }
+
+            distance = Math.min(distance, columnTop - shapeBottom - 1);
+        }
+
+        return distance;
+    }
+
+    private int probeDropDistance(TetronimoShape shape, int row, int column) {
+        int distance = 0;
+        while (fits(shape, row + distance + 1, column)) {
+            distance++;
+        }
+        return distance;
+    }
+
+    /**
+     * Persists the squares of the given shape anchored at the given position. The caller is responsible for ensuring
+     * that the shape {@link #fits} there
+     */
+    void place(TetronimoShape shape, int row, int column, Color color) {
+        byte colorIndex = paletteIndexOf(color);
+        int topRow = row + shape.getTopOffset();
+        int leftColumn = column + shape.getLeftOffset();
+
+        for (int maskRow = 0; maskRow < shape.getHeight(); maskRow++) {
+            int squareRow = topRow + maskRow;
+            long rowMask = shape.getRowMask(maskRow);
+            byte[] rowColors = writableColors(squareRow);
+            rowCounts[squareRow] += Long.bitCount(rowMask);
+
+            while (rowMask != 0) {
+                int squareColumn = leftColumn + Long.numberOfTrailingZeros(rowMask);
+                occupancy[squareRow * wordsPerRow + (squareColumn >>> 6)] |= 1L << squareColumn;
+                rowColors[squareColumn] = colorIndex;
+                columnTops[squareColumn] = Math.min(columnTops[squareColumn], squareRow);
+                rowMask &= rowMask - 1;
+            }
+        }
+
+        stackTop = Math.min(stackTop, topRow);
+
+        version++;
+    }
+
+    Color getColor(int row, int column) {
+        return palette.get(colorIndexes[row][column]);
+    }
+
+    void setColor(int row, int column, Color color) {
+        int index = row * wordsPerRow + (column >>> 6);
+        long columnBit = 1L << column;
+        boolean wasOccupied = (occupancy[index] & columnBit) != 0;
+
+        if (color == null) {
+            if (wasOccupied) {
+                occupancy[index] &= ~columnBit;
+                rowCounts[row]--;
+                writableColors(row)[column] = EMPTY;
+            }
+            if (columnTops[column] == row) {
+                columnTops[column] = findColumnTop(column, row + 1);
+            }
+            if (stackTop == row && rowCounts[row] == 0) {
+                stackTop = findStackTop(row + 1);
+            }
+        } else {
+            if (!wasOccupied) {
+                occupancy[index] |= columnBit;
+                rowCounts[row]++;
+            }
+            writableColors(row)[column] = paletteIndexOf(color);
+            columnTops[column] = Math.min(columnTops[column], row);
+            stackTop = Math.min(stackTop, row);
+        }
+
+        version++;
+    }
+
+    /**
+     * Removes any full rows within the given range, shifting the rows above them down and opening empty rows at the top.
+     * Only the rows between the top of the stack and the lowest cleared row are moved, and they're compacted in a
+     * single pass, so the cost depends on the height of the stack rather than the size of the board.
+     *
+     * @param clearedRows Receives the indexes of the cleared rows in ascending order. Must have room for every row in
+     *                    the range
+     * @return The number of rows cleared
+     */
+    int clearFullRows(int fromRow, int toRow, int[] clearedRows) {
+        int clearedCount = 0;
+        for (int row = Math.max(fromRow, 0); row <= Math.min(toRow, rows - 1); row++) {
+            if (rowCounts[row] == columns) {
+                clearedRows[clearedCount++] = row;
+            }
+        }
+
+        if (clearedCount == 0) {
+            return 0;
+        }
+
+        // Walk upwards from the lowest cleared row. Surviving rows are swapped down into the gap left by cleared rows,
+        // which carries the cleared rows' color arrays up to the top where they're recycled as the new empty rows
+        int writeRow = clearedRows[clearedCount - 1];
+        int nextCleared = clearedCount - 1;
+        for (int readRow = writeRow; readRow >= stackTop; readRow--) {
+            if (nextCleared >= 0 && clearedRows[nextCleared] == readRow) {
+                nextCleared--;
+                continue;
+            }
+
+            System.arraycopy(occupancy, readRow * wordsPerRow, occupancy, writeRow * wordsPerRow, wordsPerRow);
+            rowCounts[writeRow] = rowCounts[readRow];
+            byte[] gapColors = colorIndexes[writeRow];
+            colorIndexes[writeRow] = colorIndexes[readRow];
+            colorIndexes[readRow] = gapColors;
+            int gapOwner = rowOwners[writeRow];
+            rowOwners[writeRow] = rowOwners[readRow];
+            rowOwners[readRow] = gapOwner;
+            writeRow--;
+        }
+
+        for (int row = stackTop; row <= writeRow; row++) {
+            clearRow(row);
+        }
+
+        // Cleared rows are full, so every column's top was at or above the highest of them. Tops above it shift down
+        // with the rest of the stack; a top that was itself cleared is now whatever lies beneath
+        int highestCleared = clearedRows[0];
+        for (int column = 0; column < columns; column++) {
+            int columnTop = columnTops[column];
+            columnTops[column] = columnTop < highestCleared ? columnTop + clearedCount : findColumnTop(column, columnTop + clearedCount);
+        }
+        stackTop = findStackTop(stackTop + clearedCount);
+
+        version++;
+        return clearedCount;
+    }
+
+    void clear() {
+        for (int row = stackTop; row < rows; row++) {
+            clearRow(row);
+        }
+        Arrays.fill(columnTops, rows);
+        stackTop = rows;
+
+        version++;
+    }
+
+    private void clearRow(int row) {
+        Arrays.fill(occupancy, row * wordsPerRow, (row + 1) * wordsPerRow, 0L);
+        rowCounts[row] = 0;
+
+        if (rowOwners[row] == generation) {
+            Arrays.fill(colorIndexes[row], EMPTY);
+        } else {
+            colorIndexes[row] = new byte[columns];
+            rowOwners[row] = generation;
+        }
+    }
+
+    /**
+     * @return The color row for the given row, first copying it if it's shared with a snapshot
+     */
+    private byte[] writableColors(int row) {
+        if (rowOwners[row] != generation) {
+            colorIndexes[row] = colorIndexes[row].clone();
+            rowOwners[row] = generation;
+        }
+        return colorIndexes[row];
+    }
+
+    /**
+     * Captures the current contents of this board. Only the rows from the top of the stack down are recorded, and
+     * their colors are shared rather than copied, so the cost depends on the height of the stack
+     */
+    Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(
+                rows,
+                columns,
+                stackTop,
+                Arrays.copyOfRange(occupancy, stackTop * wordsPerRow, rows * wordsPerRow),
+                Arrays.copyOfRange(rowCounts, stackTop, rows),
+                Arrays.copyOfRange(colorIndexes, stackTop, rows),
+                columnTops.clone(),
+                palette
+        );
+
+        generation++;
+        return snapshot;
+    }
+
+    /**
+     * Returns this board to the contents captured in the given snapshot, which must have been taken from a board of the
+     * same size. The snapshot's color rows are shared until this board next writes to them, so the snapshot can be
+     * restored again later
+     */
+    void restore(Snapshot snapshot) {
+        if (snapshot.rows != rows || snapshot.columns != columns) {
+            throw new IllegalArgumentException("Snapshot was taken from a board of a different size");
+        }
+
+        // Rows above both stacks are empty either way. Rows only this board's stack reaches need emptying
+        int clearedFrom = stackTop;
+        for (int row = clearedFrom; row < snapshot.stackTop; row++) {
+            clearRow(row);
+        }
+
+        // Moving to a new generation marks the rows about to be taken from the snapshot as shared. The rows just
+        // emptied are still this board's alone
+        generation++;
+        for (int row = clearedFrom; row < snapshot.stackTop; row++) {
+            rowOwners[row] = generation;
+        }
+
+        int stackRows = rows - snapshot.stackTop;
+        System.arraycopy(snapshot.occupancy, 0, occupancy, snapshot.stackTop * wordsPerRow, stackRows * wordsPerRow);
+        System.arraycopy(snapshot.rowCounts, 0, rowCounts, snapshot.stackTop, stackRows);
+        System.arraycopy(snapshot.colorIndexes, 0, colorIndexes, snapshot.stackTop, stackRows);
+        System.arraycopy(snapshot.columnTops, 0, columnTops, 0, columns);
+        stackTop = snapshot.stackTop;
+        palette = snapshot.palette;
+
+        version++;
+    }
+
+    /**
+     * Adds a colored square for each occupied position on the board to the given collection
+     */
+    void collectSquares(Collection<ColoredSquare> squares) {
+        collectSquares(0, rows - 1, squares);
+    }
+
+    /**
+     * Adds a colored square for each occupied position between the given rows, inclusive, to the given collection
+     */
+    void collectSquares(int fromRow, int toRow, Collection<ColoredSquare> squares) {
+        for (int row = Math.max(fromRow, stackTop); row <= Math.min(toRow, rows - 1); row++) {
+            if (rowCounts[row] == 0) {
+                continue;
+            }
+
+            for (int word = 0; word < wordsPerRow; word++) {
+                long rowBits = occupancy[row * wordsPerRow + word];
+                while (rowBits != 0) {
+                    int column = word * Long.SIZE + Long.numberOfTrailingZeros(rowBits);
+                    squares.add(new ColoredSquare(palette.get(colorIndexes[row][column]), row, column));
+                    rowBits &= rowBits - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the color of every position between the given rows, inclusive, into the array one row after another from
+     * the given offset, with null for empty positions. Nothing is allocated, so it suits callers that read the same
+     * area over and over
+     */
+    void copyColors(int fromRow, int toRow, Color[] colors, int offset) {
+        for (int row = fromRow; row <= toRow; row++, offset += columns) {
+            if (row < stackTop || rowCounts[row] == 0) {
+                Arrays.fill(colors, offset, offset + columns, null);
+                continue;
+            }
+
+            byte[] rowColors = colorIndexes[row];
+            for (int column = 0; column < columns; column++) {
+                colors[offset + column] = palette.get(rowColors[column]);
+            }
+        }
+    }
+
+    private int findColumnTop(int column, int fromRow) {
+        for (int row = Math.max(fromRow, stackTop); row < rows; row++) {
+            if (isOccupied(row, column)) {
+                return row;
+            }
+        }
+        return rows;
+    }
+
+    private int findStackTop(int fromRow) {
+        for (int row = fromRow; row < rows; row++) {
+            if (rowCounts[row] != 0) {
+                return row;
+            }
+        }
+        return rows;
+    }
+
+    private byte paletteIndexOf(Color color) {
+        for (int i = 1; i < palette.size(); i++) {
+            if (palette.get(i).equals(color)) {
+                return (byte) i;
+            }
+        }
+
+        if (palette.size() > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Board color palette is full");
+        }
+
+        List<Color> grownPalette = new ArrayList<>(palette);
+        grownPalette.add(color);
+        palette = Collections.unmodifiableList(grownPalette);
+        return (byte) (palette.size() - 1);
+    }
+
+    /**
+     * Contents of a board at the moment {@link #snapshot} was called. Row arrays cover the stack only, starting from
+     * {@code stackTop}. Nothing in a snapshot is ever modified, so one can be restored any number of times
+     */
+    static final class Snapshot {
+        private final int rows, columns;
+        private final int stackTop;
+        private final long[] occupancy;
+        private final int[] rowCounts;
+        private final byte[][] colorIndexes;
+        private final int[] columnTops;
+        private final List<Color> palette;
+
+        private Snapshot(int rows, int columns, int stackTop, long[] occupancy, int[] rowCounts, byte[][] colorIndexes,
+                         int[] columnTops, List<Color> palette) {
+            this.rows = rows;
+            this.columns = columns;
+            this.stackTop = stackTop;
+            this.occupancy = occupancy;
+            this.rowCounts = rowCounts;
+            this.colorIndexes = colorIndexes;
+            this.columnTops = columnTops;
+            this.palette = palette;
+        }
+
+        /**
+         * Builds a snapshot from the color indexes of the rows of a stack, such as ones read back from a save file
+         *
+         * @param stackColors Palette indexes for each row from {@code stackTop} to the bottom of the board, where 0
+         *                    means empty
+         * @param palette     Colors the indexes refer to, with index 0 reserved for empty squares
+         */
+        static Snapshot fromColors(int rows, int columns, int stackTop, byte[][] stackColors, List<Color> palette) {
+            if (stackTop < 0 || stackTop > rows || stackColors.length != rows - stackTop) {
+                throw new IllegalArgumentException("Stack rows don't match the size of the board");
+            }
+
+            int wordsPerRow = (columns + Long.SIZE - 1) / Long.SIZE;
+            long[] occupancy = new long[stackColors.length * wordsPerRow];
+            int[] rowCounts = new int[stackColors.length];
+            int[] columnTops = new int[columns];
+            Arrays.fill(columnTops, rows);
+
+            for (int stackRow = stackColors.length - 1; stackRow >= 0; stackRow--) {
+                byte[] rowColors = stackColors[stackRow];
+                if (rowColors.length != columns) {
+                    throw new IllegalArgumentException("Stack row " + stackRow + " doesn't match the width of the board");
+                }
+
+                for (int column = 0; column < columns; column++) {
+                    int colorIndex = rowColors[column];
+                    if (colorIndex < 0 || colorIndex >= palette.size()) {
+                        throw new IllegalArgumentException("Color index " + colorIndex + " is outside the palette");
+                    }
+                    if (colorIndex != EMPTY) {
+                        occupancy[stackRow * wordsPerRow + (column >>> 6)] |= 1L << column;
+                        rowCounts[stackRow]++;
+                        columnTops[column] = stackTop + stackRow;
+                    }
+                }
+            }
+
+            // Skip past any empty rows at the top so the stack top is the highest occupied row, as the board expects
+            int skip = 0;
+            while (skip < rowCounts.length && rowCounts[skip] == 0) {
+                skip++;
+            }
+
+            return new Snapshot(
+                    rows,
+                    columns,
+                    stackTop + skip,
+                    Arrays.copyOfRange(occupancy, skip * wordsPerRow, occupancy.length),
+                    Arrays.copyOfRange(rowCounts, skip, rowCounts.length),
+                    Arrays.copyOfRange(stackColors, skip, stackColors.length),
+                    columnTops,
+                    palette
+            );
+        }
+
+        int getStackTop() {
+            return stackTop;
+        }
+
+        /**
+         * @return Palette indexes for the given row, which must be at or below the top of the stack
+         */
+        byte[] getColorIndexes(int row) {
+            return colorIndexes[row - stackTop];
+        }
+
+        List<Color> getPalette() {
+            return palette;
+        }
+    }
+}
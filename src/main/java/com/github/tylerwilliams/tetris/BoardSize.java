@@ -0,0 +1,50 @@
+package com.github.tylerwilliams.tetris;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Dimensions of a game board. Tetronimos spawn in {@link TetrisGame#LEADING_OVERFLOW_ROWS} hidden rows above the
+ * visible ones, so the board model itself is {@link #totalRows()} tall
+ *
+ * @param columns Width of the board in squares
+ * @param rows    Number of visible rows
+ */
+public record BoardSize(int columns, int rows) implements Serializable {
+    public static final int MIN_DIMENSION = 4;
+    public static final int MAX_COLUMNS = 1024;
+    public static final int MAX_ROWS = 10_000;
+
+    public static final BoardSize CLASSIC = new BoardSize(10, 20);
+
+    /**
+     * Sizes offered in the settings menu, from the classic board up to sandbox boards far larger than the screen
+     */
+    public static final List<BoardSize> PRESETS = List.of(
+        CLASSIC,
+        new BoardSize(16, 24),
+        new BoardSize(64, 40),
+        new BoardSize(200, 1000)
+    );
+
+    public BoardSize {
+        if (columns < MIN_DIMENSION || columns > MAX_COLUMNS) {
+            throw new IllegalArgumentException("Board width must be between " + MIN_DIMENSION + " and " + MAX_COLUMNS + " columns");
+        }
+        if (rows < MIN_DIMENSION || rows > MAX_ROWS) {
+            throw new IllegalArgumentException("Board height must be between " + MIN_DIMENSION + " and " + MAX_ROWS + " rows");
+        }
+    }
+
+    /**
+     * @return Number of rows in the board model, including the hidden overflow rows at the top
+     */
+    public int totalRows() {
+        return rows + TetrisGame.LEADING_OVERFLOW_ROWS;
+    }
+
+    @Override
+    public String toString() {
+        return columns + " x " + rows;
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.tylerwilliams.tetris;
+
+/**
+ * Source of monotonic time used to drive a {@link TetrisGame}. Injected into drivers so that game time can be
+ * controlled independently of the wall clock
+ */
+@FunctionalInterface
+public interface GameClock {
+    GameClock SYSTEM = () -> System.nanoTime() / 1_000_000;
+
+    /**
+     * @return Current time in milliseconds. Only differences between values are meaningful
+     */
+    long millis();
+}
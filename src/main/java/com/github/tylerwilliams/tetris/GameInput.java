@@ -0,0 +1,18 @@
+package com.github.tylerwilliams.tetris;
+
+/**
+ * Player inputs accepted by {@link TetrisGame#apply}. Replays store inputs by ordinal, so new inputs must only ever be
+ * added at the end
+ */
+public enum GameInput {
+    MOVE_LEFT,
+    MOVE_RIGHT,
+    MOVE_DOWN,
+    SUPER_SLIDE_LEFT,
+    SUPER_SLIDE_RIGHT,
+    ROTATE_CLOCKWISE,
+    ROTATE_COUNTER_CLOCKWISE,
+    HOLD,
+    RELEASE_HOLD,
+    HARD_DROP
+}
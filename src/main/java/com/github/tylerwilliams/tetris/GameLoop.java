@@ -0,0 +1,136 @@
+package com.github.tylerwilliams.tetris;
+
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a {@link TetrisGame} from a dedicated thread in fixed {@link #TICK_MILLIS} logic ticks, timed with
+ * {@link System#nanoTime()}. Elapsed time builds up in an accumulator and is spent a whole tick at a time, so a
+ * tetronimo with a fall delay of {@code d} milliseconds falls {@code TICK_MILLIS / d} cells per tick and lands exactly
+ * when it's due, however busy the rest of the application is. Painting is left entirely to whoever listens to the
+ * game's events.
+ * <p>
+ * Given an {@link InputController}, the loop applies its queued inputs at the start of each tick, so inputs take
+ * effect on the tick they were made in even when the loop is catching up on several ticks at once.
+ * <p>
+ * Each batch of ticks runs while holding the game's monitor. While the loop is running, anything else that reads or
+ * changes the game, such as key handlers and painting on the EDT, must synchronize on the game too.
+ */
+public final class GameLoop {
+    public static final int TICK_MILLIS = 1;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+
+    /**
+     * Most ticks run in one go after the loop falls behind, such as after a long GC pause. Any more than this are
+     * skipped, so the game slows down for a moment rather than lurching forward
+     */
+    private static final int MAX_CATCH_UP_TICKS = 250;
+
+    private static final Histogram JITTER = Metrics.histogram("gameLoopJitter");
+    private static final Counter SKIPPED_TICKS = Metrics.counter("gameLoopSkippedTicks");
+
+    private final TetrisGame game;
+    private final InputController inputs; // null if inputs are applied to the game directly
+    private volatile Thread loopThread; // the thread currently allowed to tick the game, or null when stopped
+
+    public GameLoop(TetrisGame game) {
+        this(game, null);
+    }
+
+    public GameLoop(TetrisGame game, InputController inputs) {
+        this.game = game;
+        this.inputs = inputs;
+    }
+
+    public void start() {
+        synchronized (game) {
+            if (loopThread != null) {
+                return;
+            }
+
+            Thread thread = new Thread(this::run, "tetris-game-loop");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            loopThread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops ticking the game. Once this returns, the loop thread won't touch the game again. It doesn't wait for the
+     * thread to exit, so it's safe to call while already holding the game's monitor, e.g. from an event listener
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (game) {
+            thread = loopThread;
+            loopThread = null;
+        }
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public boolean isRunning() {
+        return loopThread != null;
+    }
+
+    /**
+     * @return How far past their due time ticks started, in nanoseconds
+     */
+    public Histogram getJitter() {
+        return JITTER;
+    }
+
+    /**
+     * @return Cells the active tetronimo currently falls per logic tick
+     */
+    public double getGravityCellsPerTick() {
+        return (double) TICK_MILLIS / game.getFallDelay();
+    }
+
+    private void run() {
+        Thread self = Thread.currentThread();
+        long nextTick = System.nanoTime() + TICK_NANOS;
+
+        while (loopThread == self) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(this, nextTick - now);
+                continue; // parking can return early, so check the time and whether we've been stopped again
+            }
+
+            long lateness = now - nextTick;
+            JITTER.record(lateness);
+
+            long dueTicks = lateness / TICK_NANOS + 1;
+            if (dueTicks > MAX_CATCH_UP_TICKS) {
+                SKIPPED_TICKS.add(dueTicks - MAX_CATCH_UP_TICKS);
+                dueTicks = MAX_CATCH_UP_TICKS;
+                nextTick = now + TICK_NANOS;
+            } else {
+                nextTick += dueTicks * TICK_NANOS;
+            }
+
+            synchronized (game) {
+                if (loopThread != self) {
+                    return;
+                }
+                if (inputs == null) {
+                    game.tick(dueTicks * TICK_MILLIS);
+                } else {
+                    // The last tick of the batch is the one due now, the others are ticks that are being caught up on
+                    for (long tick = dueTicks - 1; tick >= 0; tick--) {
+                        inputs.update(now - tick * TICK_NANOS);
+                        game.tick(TICK_MILLIS);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.tylerwilliams.tetris;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Small, seedable SplitMix64 generator. Each game owns its own instance so piece sequences are reproducible from a
+ * seed and concurrently running games never contend on shared random state.
+ */
+public final class GameRandom implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return Internal state of this generator. A generator constructed with it as the seed continues the same sequence
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * @return The value at the given position in the sequence produced by a generator seeded with the given root, found
+     * without generating the values before it. Lets parallel workers derive independent, reproducible seeds from a
+     * single root seed
+     */
+    public static long seedAt(long rootSeed, long index) {
+        return new GameRandom(rootSeed + index * GOLDEN_GAMMA).nextLong();
+    }
+
+    /**
+     * @return A new generator seeded from this one, for handing to another game or thread. The sequence of splits from
+     * a given seed is itself deterministic
+     */
+    public GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+}
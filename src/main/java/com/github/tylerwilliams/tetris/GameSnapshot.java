@@ -0,0 +1,88 @@
+package com.github.tylerwilliams.tetris;
+
+/**
+ * Complete state of a game at one moment: the board, active and held tetronimos, conveyor, score, level and timers.
+ * Taken with {@link TetrisGame#snapshot()} and put back with {@link TetrisGame#restore(GameSnapshot)}, any number of
+ * times and on any game instance.
+ * <p>
+ * Snapshots are immutable and share board rows with the game they came from until the game changes them, so taking one
+ * every placement costs little more than the rows that placement touches. That makes them cheap enough for rewinding
+ * through recent play or for search code to branch from a position and come back to it.
+ */
+public final class GameSnapshot {
+    final long seed;
+    final GameMode gameMode;
+    final Difficulty difficulty;
+    final BoardSize boardSize;
+    final Board.Snapshot board;
+    final Tetronimo activeTetronimo;
+    final Tetronimo holdTetronimo;
+    final TetronimoConveyor.State conveyor;
+    final LineClear lastLineClear;
+    final int totalLinesCleared;
+    final int score;
+    final int level;
+    final int gameTimeSeconds;
+    final long elapsedMillis;
+    final int piecesPlaced;
+    final int currentLevelTime;
+    final int fallDelay;
+    final int fallDelayElapsed;
+    final int secondElapsed;
+    final boolean isRunning;
+    final boolean isGameWon;
+
+    GameSnapshot(long seed, GameMode gameMode, Difficulty difficulty, BoardSize boardSize, Board.Snapshot board,
+                 Tetronimo activeTetronimo, Tetronimo holdTetronimo, TetronimoConveyor.State conveyor,
+                 LineClear lastLineClear, int totalLinesCleared, int score, int level, int gameTimeSeconds,
+                 long elapsedMillis, int piecesPlaced, int currentLevelTime, int fallDelay, int fallDelayElapsed,
+                 int secondElapsed, boolean isRunning, boolean isGameWon) {
+        this.seed = seed;
+        this.gameMode = gameMode;
+        this.difficulty = difficulty;
+        this.boardSize = boardSize;
+        this.board = board;
+        this.activeTetronimo = activeTetronimo;
+        this.holdTetronimo = holdTetronimo;
+        this.conveyor = conveyor;
+        this.lastLineClear = lastLineClear;
+        this.totalLinesCleared = totalLinesCleared;
+        this.score = score;
+        this.level = level;
+        this.gameTimeSeconds = gameTimeSeconds;
+        this.elapsedMillis = elapsedMillis;
+        this.piecesPlaced = piecesPlaced;
+        this.currentLevelTime = currentLevelTime;
+        this.fallDelay = fallDelay;
+        this.fallDelayElapsed = fallDelayElapsed;
+        this.secondElapsed = secondElapsed;
+        this.isRunning = isRunning;
+        this.isGameWon = isGameWon;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return Number of tetronimos that had been locked onto the board when this snapshot was taken
+     */
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    /**
+     * @return Game time, in milliseconds, at which this snapshot was taken
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.tylerwilliams.tetris;
+
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+/**
+ * Turns timestamped presses and releases of the game's controls into {@link GameInput}s, applied by the
+ * {@link GameLoop} at tick boundaries rather than by whichever thread saw the key. Presses and releases are queued as
+ * they arrive and each tick applies the ones that happened before it, so inputs land on the same tick however long
+ * they waited to be picked up.
+ * <p>
+ * Holding left, right or soft drop repeats the move the way most modern Tetris games do: after the delayed auto shift
+ * (DAS) the move repeats once every auto repeat rate (ARR) milliseconds, both counted in game ticks rather than wall
+ * time. An ARR of zero slides the tetronimo all the way over as soon as the DAS runs out. Repeats are only applied when
+ * the move would succeed, so holding a tetronimo against a wall doesn't flood listeners and replays with inputs that
+ * do nothing. Whichever of left and right was pressed last wins while both are held.
+ * <p>
+ * {@link #press} and {@link #release} can be called from any thread. Everything else must hold the game's monitor,
+ * which the game loop already does while it ticks.
+ */
+public final class InputController {
+    public static final int DEFAULT_DAS_MILLIS = 170;
+    public static final int DEFAULT_ARR_MILLIS = 50;
+    public static final int MAX_DELAY_MILLIS = 1000;
+
+    private static final int INITIAL_QUEUE_CAPACITY = 64;
+    private static final Histogram INPUT_TO_MOVE = Metrics.histogram("inputToMove");
+
+    public enum Control {
+        LEFT,
+        RIGHT,
+        SOFT_DROP,
+        ROTATE_CLOCKWISE,
+        ROTATE_COUNTER_CLOCKWISE,
+        HOLD,
+        RELEASE_HOLD,
+        HARD_DROP,
+        /**
+         * Turns left and right into super slides while held
+         */
+        SUPER_SLIDE;
+
+        private final long mask = 1L << ordinal();
+    }
+
+    private static final Control[] CONTROLS = Control.values();
+
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called on the game loop thread, while holding the game's monitor, after each input is applied
+         *
+         * @param changed Whether the input changed the state of the game
+         */
+        void onInputApplied(GameInput input, boolean changed);
+    }
+
+    private final TetrisGame game;
+    private final Listener listener;
+    private volatile int dasMillis = DEFAULT_DAS_MILLIS;
+    private volatile int arrMillis = DEFAULT_ARR_MILLIS;
+
+    // Pending presses and releases, oldest first, guarded by this controller's monitor
+    private long[] queuedNanos = new long[INITIAL_QUEUE_CAPACITY];
+    private int[] queuedCodes = new int[INITIAL_QUEUE_CAPACITY]; // control ordinal << 1, plus 1 for a press
+    private int queueHead;
+    private int queueSize;
+
+    // Guarded by the game's monitor
+    private long heldControls; // bit set of Control ordinals
+    private Control shiftControl; // LEFT or RIGHT while either is held, whichever was pressed most recently
+    private int shiftChargeMillis;
+    private int softDropChargeMillis;
+
+    public InputController(TetrisGame game, Listener listener) {
+        this.game = game;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets how long left, right and soft drop are held before they start repeating and how often they then repeat.
+     * Takes effect from the next tick
+     */
+    public void setAutoRepeat(int dasMillis, int arrMillis) {
+        if (dasMillis < 0 || dasMillis > MAX_DELAY_MILLIS || arrMillis < 0 || arrMillis > MAX_DELAY_MILLIS) {
+            throw new IllegalArgumentException("DAS and ARR must be between 0 and " + MAX_DELAY_MILLIS + " milliseconds");
+        }
+        this.dasMillis = dasMillis;
+        this.arrMillis = arrMillis;
+    }
+
+    public int getDasMillis() {
+        return dasMillis;
+    }
+
+    public int getArrMillis() {
+        return arrMillis;
+    }
+
+    /**
+     * @param nanos When the control was pressed, from {@link System#nanoTime()}
+     */
+    public void press(Control control, long nanos) {
+        enqueue((control.ordinal() << 1) | 1, nanos);
+    }
+
+    /**
+     * @param nanos When the control was released, from {@link System#nanoTime()}
+     */
+    public void release(Control control, long nanos) {
+        enqueue(control.ordinal() << 1, nanos);
+    }
+
+    /**
+     * Forgets all held controls and drops any presses and releases that haven't been applied yet, such as when the
+     * game is paused with keys still held down
+     */
+    public void reset() {
+        synchronized (game) {
+            synchronized (this) {
+                queueHead = 0;
+                queueSize = 0;
+            }
+            heldControls = 0;
+            shiftControl = null;
+        }
+    }
+
+    /**
+     * Applies the presses and releases that happened at or before the given tick, then the auto repeats due on it.
+     * Called once per {@link GameLoop#TICK_MILLIS} tick, before the game is ticked
+     *
+     * @param tickNanos When the tick was due, from {@link System#nanoTime()}
+     */
+    void update(long tickNanos) {
+        if (shiftControl != null) {
+            shiftChargeMillis += GameLoop.TICK_MILLIS;
+        }
+        if (isHeld(Control.SOFT_DROP)) {
+            softDropChargeMillis += GameLoop.TICK_MILLIS;
+        }
+
+        while (true) {
+            long nanos;
+            int code;
+            synchronized (this) {
+                if (queueSize == 0 || queuedNanos[queueHead] - tickNanos > 0) {
+                    break;
+                }
+                nanos = queuedNanos[queueHead];
+                code = queuedCodes[queueHead];
+                queueHead = (queueHead + 1) % queuedNanos.length;
+                queueSize--;
+            }
+
+            Control control = CONTROLS[code >>> 1];
+            if ((code & 1) != 0) {
+                onPress(control, nanos);
+            } else {
+                onRelease(control);
+            }
+        }
+
+        autoShift();
+        autoSoftDrop();
+    }
+
+    private synchronized void enqueue(int code, long nanos) {
+        if (queueSize == queuedNanos.length) {
+            growQueue();
+        }
+        int tail = (queueHead + queueSize) % queuedNanos.length;
+        queuedNanos[tail] = nanos;
+        queuedCodes[tail] = code;
+        queueSize++;
+    }
+
+    private void growQueue() {
+        long[] nanos = new long[queuedNanos.length * 2];
+        int[] codes = new int[queuedCodes.length * 2];
+        for (int i = 0; i < queueSize; i++) {
+            nanos[i] = queuedNanos[(queueHead + i) % queuedNanos.length];
+            codes[i] = queuedCodes[(queueHead + i) % queuedCodes.length];
+        }
+        queuedNanos = nanos;
+        queuedCodes = codes;
+        queueHead = 0;
+    }
+
+    private void onPress(Control control, long nanos) {
+        if (isHeld(control)) {
+            return;
+        }
+        heldControls |= control.mask;
+
+        switch (control) {
+            case LEFT, RIGHT -> {
+                shiftControl = control;
+                shiftChargeMillis = 0;
+                apply(shiftInput(control), nanos);
+            }
+            case SOFT_DROP -> {
+                softDropChargeMillis = 0;
+                apply(GameInput.MOVE_DOWN, nanos);
+            }
+            case ROTATE_CLOCKWISE -> apply(GameInput.ROTATE_CLOCKWISE, nanos);
+            case ROTATE_COUNTER_CLOCKWISE -> apply(GameInput.ROTATE_COUNTER_CLOCKWISE, nanos);
+            case HOLD -> apply(GameInput.HOLD, nanos);
+            case RELEASE_HOLD -> apply(GameInput.RELEASE_HOLD, nanos);
+            case HARD_DROP -> apply(GameInput.HARD_DROP, nanos);
+            case SUPER_SLIDE -> {
+                // Only a modifier for left and right
+            }
+        }
+    }
+
+    private void onRelease(Control control) {
+        heldControls &= ~control.mask;
+
+        // Letting go of the latest direction hands over to the other one if it's still held, which starts its DAS again
+        if (control == shiftControl) {
+            Control other = control == Control.LEFT ? Control.RIGHT : Control.LEFT;
+            shiftControl = isHeld(other) ? other : null;
+            shiftChargeMillis = 0;
+        }
+    }
+
+    private void autoShift() {
+        if (shiftControl == null || shiftChargeMillis < dasMillis) {
+            return;
+        }
+
+        int columnMove = shiftControl == Control.LEFT ? -1 : 1;
+        int arr = arrMillis;
+        if (arr == 0) {
+            shiftChargeMillis = dasMillis; // keeps sliding whenever the way opens up, without the charge overflowing
+            if (game.canMoveActiveTetronimo(0, columnMove)) {
+                apply(shiftControl == Control.LEFT ? GameInput.SUPER_SLIDE_LEFT : GameInput.SUPER_SLIDE_RIGHT);
+            }
+            return;
+        }
+
+        shiftChargeMillis -= arr;
+        if (game.canMoveActiveTetronimo(0, columnMove)) {
+            apply(shiftInput(shiftControl));
+        }
+    }
+
+    private void autoSoftDrop() {
+        if (!isHeld(Control.SOFT_DROP) || softDropChargeMillis < dasMillis) {
+            return;
+        }
+
+        // Unlike shifting, soft drop never skips rows, so at an ARR of zero it moves one row every tick
+        softDropChargeMillis -= Math.max(arrMillis, GameLoop.TICK_MILLIS);
+        if (game.canMoveActiveTetronimo(1, 0)) {
+            apply(GameInput.MOVE_DOWN);
+        }
+    }
+
+    private GameInput shiftInput(Control direction) {
+        if (isHeld(Control.SUPER_SLIDE)) {
+            return direction == Control.LEFT ? GameInput.SUPER_SLIDE_LEFT : GameInput.SUPER_SLIDE_RIGHT;
+        }
+        return direction == Control.LEFT ? GameInput.MOVE_LEFT : GameInput.MOVE_RIGHT;
+    }
+
+    private boolean isHeld(Control control) {
+        return (heldControls & control.mask) != 0;
+    }
+
+    private void apply(GameInput input, long pressNanos) {
+        boolean changed = game.apply(input);
+        INPUT_TO_MOVE.recordSince(pressNanos);
+        listener.onInputApplied(input, changed);
+    }
+
+    private void apply(GameInput input) {
+        listener.onInputApplied(input, game.apply(input));
+    }
+}
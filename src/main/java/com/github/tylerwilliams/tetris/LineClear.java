@@ -0,0 +1,51 @@
+package com.github.tylerwilliams.tetris;
+
+import java.util.Arrays;
+
+/**
+ * Summary of the rows removed when a tetronimo was locked into place. The same instance is kept in snapshots and handed
+ * to every listener, so it never gives its array of rows out, only copies of it.
+ *
+ * @param rows         Indexes of the cleared rows, top to bottom, as they were before being removed. The array is kept
+ *                     as it is, so it mustn't be changed afterwards
+ * @param perfectClear Whether the board was left completely empty
+ */
+public record LineClear(int[] rows, boolean perfectClear) {
+    public static final LineClear NONE = new LineClear(new int[0], false);
+
+    /**
+     * @return A copy of the cleared row indexes. {@link #count()} and {@link #row(int)} read them without copying
+     */
+    @Override
+    public int[] rows() {
+        return rows.clone();
+    }
+
+    public int count() {
+        return rows.length;
+    }
+
+    /**
+     * @return Index of the cleared row at the given position, counting from the top
+     */
+    public int row(int index) {
+        return rows[index];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof LineClear lineClear
+                && perfectClear == lineClear.perfectClear
+                && Arrays.equals(rows, lineClear.rows);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(rows) + Boolean.hashCode(perfectClear);
+    }
+
+    @Override
+    public String toString() {
+        return "LineClear[rows=" + Arrays.toString(rows) + ", perfectClear=" + perfectClear + "]";
+    }
+}
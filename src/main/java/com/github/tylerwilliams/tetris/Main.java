@@ -1,10 +1,20 @@
 package com.github.tylerwilliams.tetris;
 
+import com.github.tylerwilliams.tetris.metrics.Metrics;
 import com.github.tylerwilliams.tetris.swing.MasterTetrisFrame;
 
+import javax.management.JMException;
+
 public class Main {
 
     public static void main(String[] args) {
+        try {
+            Metrics.registerMBeans();
+        } catch (JMException e) {
+            System.err.println("Could not register metrics with JMX");
+            e.printStackTrace();
+        }
+
         new MasterTetrisFrame().setVisible(true);
     }
 
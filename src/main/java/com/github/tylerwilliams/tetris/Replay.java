@@ -0,0 +1,14 @@
+package com.github.tylerwilliams.tetris;
+
+/**
+ * Recording of a single game: everything needed to set it up again, plus the log of player inputs.
+ * <p>
+ * The input log is a sequence of unsigned LEB128 varints. Each one packs the milliseconds of game time since the
+ * previous entry above a 4 bit code, which is either a {@link GameInput} ordinal or {@link #END_OF_REPLAY}. Inputs are
+ * usually well under a second apart, so most entries take 2 bytes.
+ */
+public record Replay(long seed, Difficulty difficulty, GameMode gameMode, BoardSize boardSize, byte[] inputLog) {
+    static final int CODE_BITS = 4;
+    static final int CODE_MASK = (1 << CODE_BITS) - 1;
+    static final int END_OF_REPLAY = CODE_MASK;
+}
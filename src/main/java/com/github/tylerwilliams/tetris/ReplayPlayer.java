@@ -0,0 +1,103 @@
+package com.github.tylerwilliams.tetris;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Plays a {@link Replay} back into a {@link TetrisGame} by re-applying its inputs at the game times they were recorded.
+ * Because the game is seeded and only advances through ticks, the replayed game plays out exactly like the original.
+ * Playback can run in step with a real clock via {@link #advance} or as fast as possible via {@link #playToEnd}.
+ */
+public class ReplayPlayer {
+    private static final GameInput[] INPUTS = GameInput.values();
+
+    private final Replay replay;
+    private final TetrisGame game;
+    private final ByteBuffer log;
+    private long nextEntryTime;
+    private int nextEntryCode;
+    private boolean finished;
+
+    public ReplayPlayer(Replay replay, TetrisGame game) {
+        this.replay = replay;
+        this.game = game;
+        this.log = ByteBuffer.wrap(replay.inputLog());
+    }
+
+    /**
+     * Sets up the game to match the start of the recorded game
+     */
+    public void start() {
+        game.setDifficulty(replay.difficulty());
+        game.setGameMode(replay.gameMode());
+        game.setBoardSize(replay.boardSize());
+        game.reset(replay.seed());
+
+        log.rewind();
+        nextEntryTime = 0;
+        finished = false;
+        readNextEntry();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Advances the replay by the given amount of game time, applying any inputs that fall within it
+     */
+    public void advance(long elapsedMillis) {
+        long targetTime = game.getElapsedMillis() + elapsedMillis;
+
+        while (!finished && game.isRunning() && nextEntryTime <= targetTime) {
+            game.tick(nextEntryTime - game.getElapsedMillis());
+
+            if (nextEntryCode == Replay.END_OF_REPLAY) {
+                // Game was abandoned at this point rather than lost or won, so stop it here as well
+                game.pause();
+                finished = true;
+            } else {
+                game.apply(INPUTS[nextEntryCode]);
+                readNextEntry();
+            }
+        }
+
+        if (!finished && game.isRunning()) {
+            game.tick(targetTime - game.getElapsedMillis());
+        }
+
+        if (!game.isRunning()) {
+            finished = true;
+        }
+    }
+
+    /**
+     * Plays the rest of the replay without waiting on any clock
+     */
+    public void playToEnd() {
+        advance(Long.MAX_VALUE - game.getElapsedMillis());
+    }
+
+    private void readNextEntry() {
+        if (!log.hasRemaining()) {
+            nextEntryCode = Replay.END_OF_REPLAY;
+            return;
+        }
+
+        long value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = log.get();
+            value |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0 && log.hasRemaining());
+
+        nextEntryTime += value >>> Replay.CODE_BITS;
+        nextEntryCode = (int) (value & Replay.CODE_MASK);
+
+        if (nextEntryCode >= INPUTS.length) {
+            // Input added by a newer version of the game; nothing sensible can be replayed past this point
+            nextEntryCode = Replay.END_OF_REPLAY;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.tylerwilliams.tetris;
+
+import com.github.tylerwilliams.tetris.event.TetrisEvent;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Records the inputs applied to a game into a compact in-memory log. Recording only appends a couple of bytes per input,
+ * so it never holds up the game; writing the finished {@link Replay} to disk is left to the caller.
+ */
+public class ReplayRecorder {
+    private static final int INITIAL_LOG_CAPACITY = 4096;
+    private static final int MAX_ENTRY_SIZE = 10;
+
+    private final TetrisGame game;
+    private ByteBuffer log = ByteBuffer.allocate(INITIAL_LOG_CAPACITY);
+    private long lastEntryTime;
+    private boolean recording;
+
+    public ReplayRecorder(TetrisGame game) {
+        this.game = game;
+        game.subscribe(TetrisEvent.INPUT_APPLIED, input -> {
+            if (recording) {
+                writeEntry(((GameInput) input).ordinal());
+            }
+        });
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Begins recording the game that was just started on the underlying {@link TetrisGame}
+     */
+    public void begin() {
+        log.clear();
+        lastEntryTime = 0;
+        recording = true;
+    }
+
+    /**
+     * Stops recording, marking the current game time as the end of the replay
+     */
+    public Replay finish() {
+        writeEntry(Replay.END_OF_REPLAY);
+        recording = false;
+
+        byte[] inputLog = Arrays.copyOf(log.array(), log.position());
+        return new Replay(game.getSeed(), game.getDifficulty(), game.getGameMode(), game.getBoardSize(), inputLog);
+    }
+
+    /**
+     * Stops recording without making a replay, for when the game has been put back into an earlier state that the
+     * inputs recorded so far don't lead to
+     */
+    public void abandon() {
+        recording = false;
+    }
+
+    private void writeEntry(int code) {
+        if (log.remaining() < MAX_ENTRY_SIZE) {
+            log = ByteBuffer.allocate(log.capacity() * 2).put(log.flip());
+        }
+
+        long entryTime = game.getElapsedMillis();
+        long value = ((entryTime - lastEntryTime) << Replay.CODE_BITS) | code;
+        lastEntryTime = entryTime;
+
+        while ((value & ~0x7FL) != 0) {
+            log.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        log.put((byte) value);
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.tylerwilliams.tetris;
+
+import com.github.tylerwilliams.tetris.task.Tasks;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.*;
+
+public class ReplayRepository {
+    private static final Path REPLAY_DIR = TetrisConfigDir.resolve("replays");
+    private static final String REPLAY_EXTENSION = ".replay";
+
+    private static final int MAGIC = 0x54525059; // "TRPY"
+    private static final byte FORMAT_VERSION = 2; // version 1 predates configurable board sizes, so was always classic
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES + Byte.BYTES + Byte.BYTES + 2 * Short.BYTES + Integer.BYTES;
+
+    /**
+     * Writes the given replay to a new file in the replay directory. This does blocking I/O, so call it off the EDT
+     */
+    public static Path save(Replay replay) throws IOException {
+        Tasks.checkBlockingIo();
+        Files.createDirectories(REPLAY_DIR);
+        Path replayFile = REPLAY_DIR.resolve(System.currentTimeMillis() + REPLAY_EXTENSION);
+
+        byte[] inputLog = replay.inputLog();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + inputLog.length)
+                .putInt(MAGIC)
+                .put(FORMAT_VERSION)
+                .putLong(replay.seed())
+                .put((byte) replay.difficulty().ordinal())
+                .put((byte) replay.gameMode().ordinal())
+                .putShort((short) replay.boardSize().columns())
+                .putShort((short) replay.boardSize().rows())
+                .putInt(inputLog.length)
+                .put(inputLog)
+                .flip();
+
+        try (var channel = FileChannel.open(replayFile, CREATE_NEW, WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        return replayFile;
+    }
+
+    public static Optional<Replay> loadLatest() throws IOException {
+        Tasks.checkBlockingIo();
+        if (!Files.isDirectory(REPLAY_DIR)) {
+            return Optional.empty();
+        }
+
+        Optional<Path> latestFile;
+        try (Stream<Path> files = Files.list(REPLAY_DIR)) {
+            latestFile = files
+                    .filter(file -> file.getFileName().toString().endsWith(REPLAY_EXTENSION))
+                    .max(Comparator.comparing(Path::getFileName)); // file names are creation timestamps
+        }
+
+        return latestFile.isPresent() ? Optional.of(load(latestFile.get())) : Optional.empty();
+    }
+
+    public static Replay load(Path replayFile) throws IOException {
+        Tasks.checkBlockingIo();
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(replayFile, READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the file is consumed
+            }
+        }
+        buffer.flip();
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Unrecognized replay file format");
+            }
+            byte version = buffer.get();
+            if (version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Unsupported replay file version " + version);
+            }
+
+            long seed = buffer.getLong();
+            Difficulty difficulty = Difficulty.values()[buffer.get()];
+            GameMode gameMode = GameMode.values()[buffer.get()];
+            BoardSize boardSize = version == 1 ? BoardSize.CLASSIC : new BoardSize(buffer.getShort(), buffer.getShort());
+            byte[] inputLog = new byte[buffer.getInt()];
+            buffer.get(inputLog);
+
+            return new Replay(seed, difficulty, gameMode, boardSize, inputLog);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+            throw new IOException("Malformed replay file", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.tylerwilliams.tetris;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Bounded stack of recent {@link GameSnapshot}s for stepping back through a game, one per placement. A
+ * {@link TetrisGame} records into it once given one with {@link TetrisGame#setRewindHistory}. Once full, recording
+ * another snapshot drops the oldest one. Since snapshots share unchanged board rows with each other, a few hundred of
+ * them take up little more memory than the rows that actually changed.
+ * <p>
+ * The game records from whichever thread ticks it, so the history is only to be used while holding the game's lock.
+ */
+public final class RewindHistory {
+    private final GameSnapshot[] snapshots;
+    private int newest = -1; // index of the most recently recorded snapshot
+    private int size;
+
+    public RewindHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Rewind history must hold at least one snapshot");
+        }
+        this.snapshots = new GameSnapshot[capacity];
+    }
+
+    /**
+     * Records a snapshot of the given game's current state
+     */
+    public void record(TetrisGame game) {
+        newest = (newest + 1) % snapshots.length;
+        snapshots[newest] = game.snapshot();
+        size = Math.min(size + 1, snapshots.length);
+    }
+
+    /**
+     * Steps the given game back to the start of the placement before the current one: the most recent snapshot taken
+     * with fewer tetronimos placed than the game has now. Newer snapshots are dropped. The restored snapshot stays in
+     * the history, since it's once again the start of the current placement
+     *
+     * @return False if there was nothing to rewind to, in which case neither the game nor the history is changed
+     */
+    public boolean rewind(TetrisGame game) {
+        int steps = 0;
+        while (steps < size && snapshots[index(steps)].getPiecesPlaced() >= game.getPiecesPlaced()) {
+            steps++;
+        }
+        if (steps == size) {
+            return false;
+        }
+
+        for (int i = 0; i < steps; i++) {
+            pop();
+        }
+        game.restore(snapshots[newest]);
+        return true;
+    }
+
+    /**
+     * @return The most recently recorded snapshot, which is removed from the history
+     */
+    public Optional<GameSnapshot> pop() {
+        if (size == 0) {
+            return Optional.empty();
+        }
+
+        GameSnapshot snapshot = snapshots[newest];
+        snapshots[newest] = null;
+        newest = (newest - 1 + snapshots.length) % snapshots.length;
+        size--;
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * @return Position in the array of the snapshot recorded the given number of snapshots before the newest
+     */
+    private int index(int stepsBack) {
+        return (newest - stepsBack + snapshots.length) % snapshots.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return snapshots.length;
+    }
+
+    public void clear() {
+        Arrays.fill(snapshots, null);
+        newest = -1;
+        size = 0;
+    }
+}
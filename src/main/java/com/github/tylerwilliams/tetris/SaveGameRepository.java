@@ -0,0 +1,237 @@
+package com.github.tylerwilliams.tetris;
+
+import com.github.tylerwilliams.tetris.task.Tasks;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Stores a single in-progress game so it can be resumed after the window is closed. The save is a small binary file:
+ * a fixed header of game state, then the palette and one byte per square for the rows of the stack. Rows above the
+ * stack are empty and aren't written, so a classic board saves in a few hundred bytes and loads in well under a
+ * millisecond.
+ * <p>
+ * Saves are written to a temporary file which is then atomically renamed over the previous save, so a crash part way
+ * through writing never leaves a corrupt save behind. All methods here do blocking I/O, so call them off the EDT.
+ */
+public class SaveGameRepository {
+    private static final Path SAVE_FILE = TetrisConfigDir.resolve("autosave");
+    private static final Path TEMP_FILE = TetrisConfigDir.resolve("autosave.tmp");
+
+    private static final int MAGIC = 0x54534156; // "TSAV"
+    private static final byte FORMAT_VERSION = 1;
+    private static final int NO_TETRONIMO = -1;
+    private static final int FIXED_SIZE = 256; // generous bound on everything other than the palette and stack rows
+
+    public static void save(GameSnapshot snapshot) throws IOException {
+        save(SAVE_FILE, TEMP_FILE, snapshot);
+    }
+
+    public static Optional<GameSnapshot> load() throws IOException {
+        return load(SAVE_FILE);
+    }
+
+    public static void delete() throws IOException {
+        Tasks.checkBlockingIo();
+        Files.deleteIfExists(SAVE_FILE);
+    }
+
+    static void save(Path saveFile, Path tempFile, GameSnapshot snapshot) throws IOException {
+        Tasks.checkBlockingIo();
+        ByteBuffer buffer = encode(snapshot);
+
+        try (var channel = FileChannel.open(tempFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+
+        Files.move(tempFile, saveFile, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    static Optional<GameSnapshot> load(Path saveFile) throws IOException {
+        Tasks.checkBlockingIo();
+        if (!Files.exists(saveFile)) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(saveFile, READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the file is consumed
+            }
+        }
+        buffer.flip();
+
+        try {
+            return Optional.of(decode(buffer));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+            throw new IOException("Malformed save file", e);
+        }
+    }
+
+    private static ByteBuffer encode(GameSnapshot snapshot) {
+        BoardSize boardSize = snapshot.boardSize;
+        Board.Snapshot board = snapshot.board;
+        List<Color> palette = board.getPalette();
+        int stackTop = board.getStackTop();
+        int stackRows = boardSize.totalRows() - stackTop;
+
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE
+                + palette.size() * Integer.BYTES
+                + snapshot.lastLineClear.count() * Short.BYTES
+                + snapshot.conveyor.queued().length
+                + stackRows * boardSize.columns());
+
+        buffer.putInt(MAGIC)
+                .put(FORMAT_VERSION)
+                .putLong(snapshot.seed)
+                .put((byte) snapshot.gameMode.ordinal())
+                .put((byte) snapshot.difficulty.ordinal())
+                .putShort((short) boardSize.columns())
+                .putShort((short) boardSize.rows())
+                .putInt(snapshot.totalLinesCleared)
+                .putInt(snapshot.score)
+                .putInt(snapshot.level)
+                .putInt(snapshot.gameTimeSeconds)
+                .putLong(snapshot.elapsedMillis)
+                .putInt(snapshot.piecesPlaced)
+                .putInt(snapshot.currentLevelTime)
+                .putInt(snapshot.fallDelay)
+                .putInt(snapshot.fallDelayElapsed)
+                .putInt(snapshot.secondElapsed)
+                .put((byte) (snapshot.isGameWon ? 1 : 0));
+
+        putTetronimo(buffer, snapshot.activeTetronimo);
+        putTetronimo(buffer, snapshot.holdTetronimo);
+
+        buffer.putLong(snapshot.conveyor.randomState());
+        buffer.put((byte) snapshot.conveyor.queued().length);
+        for (TetronimoType type : snapshot.conveyor.queued()) {
+            buffer.put((byte) type.ordinal());
+        }
+
+        buffer.put((byte) (snapshot.lastLineClear.perfectClear() ? 1 : 0));
+        buffer.putShort((short) snapshot.lastLineClear.count());
+        for (int i = 0; i < snapshot.lastLineClear.count(); i++) {
+            buffer.putShort((short) snapshot.lastLineClear.row(i));
+        }
+
+        // Index 0 of the palette is always the empty square, so only the colors after it are written
+        buffer.put((byte) (palette.size() - 1));
+        for (int i = 1; i < palette.size(); i++) {
+            buffer.putInt(palette.get(i).getRGB());
+        }
+
+        buffer.putShort((short) stackTop);
+        for (int row = stackTop; row < boardSize.totalRows(); row++) {
+            buffer.put(board.getColorIndexes(row));
+        }
+
+        return buffer.flip();
+    }
+
+    private static GameSnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Unrecognized save file format");
+        }
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported save file version " + version);
+        }
+
+        long seed = buffer.getLong();
+        GameMode gameMode = GameMode.values()[buffer.get()];
+        Difficulty difficulty = Difficulty.values()[buffer.get()];
+        BoardSize boardSize = new BoardSize(buffer.getShort(), buffer.getShort());
+        int totalLinesCleared = buffer.getInt();
+        int score = buffer.getInt();
+        int level = buffer.getInt();
+        int gameTimeSeconds = buffer.getInt();
+        long elapsedMillis = buffer.getLong();
+        int piecesPlaced = buffer.getInt();
+        int currentLevelTime = buffer.getInt();
+        int fallDelay = buffer.getInt();
+        int fallDelayElapsed = buffer.getInt();
+        int secondElapsed = buffer.getInt();
+        boolean isGameWon = buffer.get() != 0;
+
+        Tetronimo activeTetronimo = getTetronimo(buffer);
+        Tetronimo holdTetronimo = getTetronimo(buffer);
+
+        long randomState = buffer.getLong();
+        TetronimoType[] queued = new TetronimoType[buffer.get()];
+        for (int i = 0; i < queued.length; i++) {
+            queued[i] = TetronimoType.values()[buffer.get()];
+        }
+
+        boolean perfectClear = buffer.get() != 0;
+        int[] clearedRows = new int[buffer.getShort()];
+        for (int i = 0; i < clearedRows.length; i++) {
+            clearedRows[i] = buffer.getShort();
+        }
+        LineClear lastLineClear = clearedRows.length == 0 ? LineClear.NONE : new LineClear(clearedRows, perfectClear);
+
+        List<Color> palette = new ArrayList<>();
+        palette.add(null);
+        int paletteColors = Byte.toUnsignedInt(buffer.get());
+        for (int i = 0; i < paletteColors; i++) {
+            palette.add(new Color(buffer.getInt(), true));
+        }
+
+        int stackTop = buffer.getShort();
+        byte[][] stackColors = new byte[Math.max(boardSize.totalRows() - stackTop, 0)][boardSize.columns()];
+        for (byte[] rowColors : stackColors) {
+            buffer.get(rowColors);
+        }
+        Board.Snapshot board = Board.Snapshot.fromColors(boardSize.totalRows(), boardSize.columns(), stackTop, stackColors,
+                Collections.unmodifiableList(palette));
+
+        // Saves are only ever resumed into a paused game, so whether it was running when saved doesn't matter
+        return new GameSnapshot(seed, gameMode, difficulty, boardSize, board, activeTetronimo, holdTetronimo,
+                new TetronimoConveyor.State(randomState, queued), lastLineClear, totalLinesCleared, score, level,
+                gameTimeSeconds, elapsedMillis, piecesPlaced, currentLevelTime, fallDelay, fallDelayElapsed,
+                secondElapsed, false, isGameWon);
+    }
+
+    private static void putTetronimo(ByteBuffer buffer, Tetronimo tetronimo) {
+        if (tetronimo == null) {
+            buffer.put((byte) NO_TETRONIMO);
+            return;
+        }
+
+        buffer.put((byte) tetronimo.getType().ordinal())
+                .put((byte) tetronimo.getOrientation())
+                .put((byte) (tetronimo.isHold() ? 1 : 0))
+                .putShort((short) tetronimo.getRow())
+                .putShort((short) tetronimo.getColumn());
+    }
+
+    private static Tetronimo getTetronimo(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type == NO_TETRONIMO) {
+            return null;
+        }
+
+        int orientation = buffer.get();
+        boolean isHold = buffer.get() != 0;
+        int row = buffer.getShort();
+        int column = buffer.getShort();
+        return Tetronimo.at(TetronimoType.values()[type], orientation, row, column, isHold);
+    }
+}
@@ -1,5 +1,9 @@
 package com.github.tylerwilliams.tetris;
 
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+import com.github.tylerwilliams.tetris.task.Tasks;
+
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -14,13 +18,19 @@ public class ScoreRepository {
 
     private static final Path LEADERBOARD_FILE = TetrisConfigDir.resolve("leaderboard");
     private static final int LEADER_BOARD_RANK_THRESHOLD = 10;
+    private static final Histogram READ_TIME = Metrics.histogram("scoreRepositoryRead");
+    private static final Histogram WRITE_TIME = Metrics.histogram("scoreRepositoryWrite");
 
     public static boolean isLeaderBoardRank(int rank) {
         return rank <= LEADER_BOARD_RANK_THRESHOLD;
     }
 
     public static List<Score> getScores(Difficulty difficulty, GameMode gameMode) throws IOException {
-        return readScoresFromDisk()
+        return getScores(LEADERBOARD_FILE, difficulty, gameMode);
+    }
+
+    static List<Score> getScores(Path leaderboardFile, Difficulty difficulty, GameMode gameMode) throws IOException {
+        return readScoresFromDisk(leaderboardFile)
                 .stream()
                 .filter(score -> score.difficulty() == difficulty && score.gameMode() == gameMode)
                 .sorted(SCORE_COMPARATOR)
@@ -29,7 +39,11 @@ public class ScoreRepository {
     }
 
     public static int determineRank(int pointsOfScoreToSave, Difficulty difficulty, GameMode gameMode, LocalDateTime scoreDate) throws IOException {
-        long numScoresGreater = readScoresFromDisk()
+        return determineRank(LEADERBOARD_FILE, pointsOfScoreToSave, difficulty, gameMode, scoreDate);
+    }
+
+    static int determineRank(Path leaderboardFile, int pointsOfScoreToSave, Difficulty difficulty, GameMode gameMode, LocalDateTime scoreDate) throws IOException {
+        long numScoresGreater = readScoresFromDisk(leaderboardFile)
                 .stream()
                 .filter(score -> score.difficulty() == difficulty && score.gameMode() == gameMode)
                 .filter(existingScore -> {
@@ -44,24 +58,36 @@ public class ScoreRepository {
     }
 
     public static void saveScore(Score score) throws IOException {
-        Collection<Score> allScores = new ArrayList<>(readScoresFromDisk());
+        Collection<Score> allScores = new ArrayList<>(readScoresFromDisk(LEADERBOARD_FILE));
         allScores.add(score);
 
-        try (var objectOutputStream = new ObjectOutputStream(new FileOutputStream(LEADERBOARD_FILE.toFile()))) {
+        writeScoresToDisk(LEADERBOARD_FILE, allScores);
+    }
+
+    static void writeScoresToDisk(Path leaderboardFile, Collection<Score> allScores) throws IOException {
+        Tasks.checkBlockingIo();
+        long start = System.nanoTime();
+        try (var objectOutputStream = new ObjectOutputStream(new FileOutputStream(leaderboardFile.toFile()))) {
             objectOutputStream.writeObject(allScores);
+        } finally {
+            WRITE_TIME.recordSince(start);
         }
     }
 
     @SuppressWarnings("unchecked")
-    private static Collection<Score> readScoresFromDisk() throws IOException {
-        if (!Files.exists(LEADERBOARD_FILE)) {
+    private static Collection<Score> readScoresFromDisk(Path leaderboardFile) throws IOException {
+        Tasks.checkBlockingIo();
+        if (!Files.exists(leaderboardFile)) {
             return Collections.emptyList();
         }
 
-        try (var scoresInputStream = new ObjectInputStream(new FileInputStream(LEADERBOARD_FILE.toFile()))) {
+        long start = System.nanoTime();
+        try (var scoresInputStream = new ObjectInputStream(new FileInputStream(leaderboardFile.toFile()))) {
             return (Collection<Score>) scoresInputStream.readObject();
         } catch (ClassCastException | ClassNotFoundException e) {
             throw new IOException("Malformed high scores file", e);
+        } finally {
+            READ_TIME.recordSince(start);
         }
     }
 
@@ -1,13 +1,36 @@
 package com.github.tylerwilliams.tetris;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
 import java.io.Serializable;
 
 public class Settings implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 172882841668102377L; // matches settings saved before the UID was declared
+
     public boolean ghostSquares = true;
     public boolean soundtrack = true;
     public boolean soundEffects = true;
     public GameMode gameMode = GameMode.CAMPAIGN;
     public Difficulty difficulty = Difficulty.EASY;
+    public BoardSize boardSize = BoardSize.CLASSIC;
+    public int dasMillis = InputController.DEFAULT_DAS_MILLIS;
+    public int arrMillis = InputController.DEFAULT_ARR_MILLIS;
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        // Settings saved by older versions are missing the newer fields, which would otherwise read as null or 0
+        ObjectInputStream.GetField fields = in.readFields();
+        ghostSquares = fields.get("ghostSquares", true);
+        soundtrack = fields.get("soundtrack", true);
+        soundEffects = fields.get("soundEffects", true);
+        gameMode = (GameMode) fields.get("gameMode", GameMode.CAMPAIGN);
+        difficulty = (Difficulty) fields.get("difficulty", Difficulty.EASY);
+        boardSize = (BoardSize) fields.get("boardSize", BoardSize.CLASSIC);
+        dasMillis = fields.get("dasMillis", InputController.DEFAULT_DAS_MILLIS);
+        arrMillis = fields.get("arrMillis", InputController.DEFAULT_ARR_MILLIS);
+    }
 
     @Override
     public String toString() {
@@ -17,6 +40,9 @@ public class Settings implements Serializable {
                 ", soundEffects=" + soundEffects +
                 ", gameMode=" + gameMode +
                 ", difficulty=" + difficulty +
+                ", boardSize=" + boardSize +
+                ", dasMillis=" + dasMillis +
+                ", arrMillis=" + arrMillis +
                 '}';
     }
 }
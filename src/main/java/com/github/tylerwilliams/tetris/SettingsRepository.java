@@ -1,25 +1,48 @@
 package com.github.tylerwilliams.tetris;
 
+import com.github.tylerwilliams.tetris.task.Tasks;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 public class SettingsRepository {
     private static final Path SETTINGS_FILE = TetrisConfigDir.resolve("settings");
+    // Writes run one at a time so an older save can never land on top of a newer one
+    private static final Executor WRITER = Tasks.newSerialIoExecutor();
 
+    /**
+     * Saves the settings in the background. They're serialized before this returns, so the caller is free to carry on
+     * changing them
+     */
     public static void save(Settings settings) {
-        try (var outputStream = new ObjectOutputStream(Files.newOutputStream(SETTINGS_FILE))) {
+        var serialized = new ByteArrayOutputStream();
+        try (var outputStream = new ObjectOutputStream(serialized)) {
             outputStream.writeObject(settings);
         } catch (IOException e) {
-            System.err.println("Could not save settings file");
+            System.err.println("Could not serialize settings");
             e.printStackTrace();
+            return;
         }
+
+        WRITER.execute(() -> {
+            Tasks.checkBlockingIo();
+            try {
+                Files.write(SETTINGS_FILE, serialized.toByteArray());
+            } catch (IOException e) {
+                System.err.println("Could not save settings file");
+                e.printStackTrace();
+            }
+        });
     }
 
     public static Optional<Settings> load() {
+        Tasks.checkBlockingIo();
         if (!Files.exists(SETTINGS_FILE)) {
             return Optional.empty();
         }
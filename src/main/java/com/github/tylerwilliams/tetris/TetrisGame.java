@@ -2,57 +2,106 @@ package com.github.tylerwilliams.tetris;
 
 import com.github.tylerwilliams.tetris.event.Broker;
 import com.github.tylerwilliams.tetris.event.TetrisEvent;
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
 
-import javax.swing.Timer;
 import java.awt.*;
 import java.util.List;
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Headless game engine. Time only passes when the owner calls {@link #tick} or {@link #step}, which keeps the engine
+ * independent of any particular timer or display and lets it be simulated faster than real time.
+ */
 public class TetrisGame extends Broker {
     public static final int FREE_PLAY_MINIMUM_FALL_TIMER_DELAY = 50;
     public static final int LEADING_OVERFLOW_ROWS = 3;
     public static final int MAX_LEVEL = 10;
-    public static final int VERTICAL_DIMENSION = 20 + LEADING_OVERFLOW_ROWS;
-    public static final int HORIZONTAL_DIMENSION = 10;
+    /**
+     * Stands for ghost squares in {@link #copySquareColors}. Being fully transparent, it never equals the color of a
+     * real square
+     */
+    public static final Color GHOST_COLOR = new Color(0x00FFFFFF, true);
+    private static final int MILLIS_PER_SECOND = 1000;
+    private static final Counter PIECES_SPAWNED = Metrics.counter("piecesSpawned");
+    private static final Counter LINES_CLEARED = Metrics.counter("linesCleared");
+    private static final Histogram TICK_DURATION = Metrics.histogram("tickDuration");
 
     private GameMode gameMode;
     private Tetronimo activeTetronimo;
     private Tetronimo holdTetronimo;
     private final TetronimoConveyor conveyor;
-    private final LinkedList<Color[]> persistedSquares; // persisted colors for placed tetronimos; doesn't include active tetronimo squares
+    private final GameRandom seedSequence; // supplies the seed for each new game started with reset()
+    private long seed;
+    private BoardSize boardSize;
+    private Board board; // persisted colors for placed tetronimos; doesn't include active tetronimo squares
+    private int[] clearedRowsBuffer;
+    private LineClear lastLineClear = LineClear.NONE;
     private Difficulty difficulty;
     private int totalLinesCleared;
     private int score;
     private int level;
     private int gameTimeSeconds;
+    private long elapsedMillis; // total game time the game has been ticked through while running
+    private int piecesPlaced;
     private boolean ghostSquaresEnabled = true;
+    private Collection<ColoredSquare> ghostSquaresCached = List.of();
+    private Collection<ColoredSquare> ghostCachedForSquares; // active tetronimo squares the cached ghost was computed for
+    private int ghostCachedForBoardVersion;
     private int currentLevelTime;
-    private final Timer fallTimer;
-    private final Timer gameTimer;
+    private int fallDelay;
+    private int fallDelayElapsed; // milliseconds since the last gravity step
+    private int secondElapsed; // milliseconds since the game time last ticked over
+    private boolean isRunning;
     private boolean isGameWon;
+    private RewindHistory rewindHistory; // records a snapshot at the start of each game and after each placement, if set
 
     public TetrisGame() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param seed Seeds the sequence of games played on this instance. Two instances created with the same seed and
+     *             fed the same inputs play out identically
+     */
+    public TetrisGame(long seed) {
+        this(seed, BoardSize.CLASSIC);
+    }
+
+    public TetrisGame(long seed, BoardSize boardSize) {
+        this.seedSequence = new GameRandom(seed);
         this.gameMode = GameMode.CAMPAIGN;
         this.conveyor = new TetronimoConveyor();
 
-        this.persistedSquares = new LinkedList<>();
-        for (int i = 1; i <= VERTICAL_DIMENSION; i++) {
-            persistedSquares.add(new Color[HORIZONTAL_DIMENSION]);
-        }
+        setBoardSize(boardSize);
+    }
+
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
 
-        this.fallTimer = new Timer(0, e -> tryMoveActiveTetronimoDown());
+    /**
+     * Replaces the board with an empty one of the given size. Takes effect immediately, so this should only be called
+     * between games, before {@link #reset}
+     */
+    public void setBoardSize(BoardSize boardSize) {
+        if (boardSize.equals(this.boardSize)) {
+            return;
+        }
 
-        this.gameTimer = new Timer(1000, e -> {
-            setGameTime(gameTimeSeconds + 1);
-            currentLevelTime++;
+        this.boardSize = boardSize;
+        this.board = new Board(boardSize.totalRows(), boardSize.columns());
+        this.clearedRowsBuffer = new int[boardSize.totalRows()];
+        this.ghostCachedForSquares = null;
+    }
 
-            if (gameMode == GameMode.TIME_ATTACK && currentLevelTime >= difficulty.getTimeAttackSecondsPerLevel()) {
-                publish(TetrisEvent.TIME_ATTACK_FAIL);
-                ((Timer) e.getSource()).stop();
-                fallTimer.stop();
-            }
-        });
+    /**
+     * @return Seed of the game currently being played, which can be passed to {@link #reset(long)} to replay it
+     */
+    public long getSeed() {
+        return seed;
     }
 
     public GameMode getGameMode() {
@@ -79,16 +128,89 @@ public class TetrisGame extends Broker {
         setHoldTetronimo(null);
     }
 
+    /**
+     * Starts recording a snapshot into the given history when each game starts and after every placement, or stops
+     * recording if it's null. The history is cleared whenever a new game starts
+     */
+    public void setRewindHistory(RewindHistory rewindHistory) {
+        this.rewindHistory = rewindHistory;
+    }
+
     public void setGhostSquaresEnabled(boolean ghostSquaresEnabled) {
         this.ghostSquaresEnabled = ghostSquaresEnabled;
     }
 
-    public Timer getFallTimer() {
-        return fallTimer;
+    /**
+     * @return Milliseconds between gravity steps at the current level
+     */
+    public int getFallDelay() {
+        return fallDelay;
+    }
+
+    /**
+     * @return True if a game is in progress and not paused, meaning calls to {@link #tick} advance it
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    public void pause() {
+        this.isRunning = false;
+    }
+
+    public void resume() {
+        this.isRunning = true;
     }
 
-    public Timer getGameTimer() {
-        return gameTimer;
+    /**
+     * Advances the game clock by the given number of milliseconds, applying gravity steps and game time updates in the
+     * order they fall due. Advancing in one large tick or in several smaller ones produces the same result.
+     */
+    public void tick(long elapsedMillis) {
+        long start = System.nanoTime();
+        long remaining = elapsedMillis;
+
+        while (isRunning && remaining > 0) {
+            int untilFall = Math.max(fallDelay - fallDelayElapsed, 0);
+            int untilSecond = MILLIS_PER_SECOND - secondElapsed;
+            int advance = (int) Math.min(remaining, Math.min(untilFall, untilSecond));
+
+            remaining -= advance;
+            this.elapsedMillis += advance;
+            fallDelayElapsed += advance;
+            secondElapsed += advance;
+
+            if (secondElapsed >= MILLIS_PER_SECOND) {
+                secondElapsed = 0;
+                onGameSecondElapsed();
+            }
+
+            if (isRunning && fallDelayElapsed >= fallDelay) {
+                fallDelayElapsed = 0;
+                tryMoveActiveTetronimoDown();
+                publish(TetrisEvent.GRAVITY_STEP);
+            }
+        }
+
+        TICK_DURATION.recordSince(start);
+    }
+
+    /**
+     * Advances the game clock to the next gravity step
+     */
+    public void step() {
+        tick(Math.max(fallDelay - fallDelayElapsed, 1));
+    }
+
+    private void onGameSecondElapsed() {
+        setGameTime(gameTimeSeconds + 1);
+        currentLevelTime++;
+        publish(TetrisEvent.GAME_TIME_CHANGED, gameTimeSeconds);
+
+        if (gameMode == GameMode.TIME_ATTACK && currentLevelTime >= difficulty.getTimeAttackSecondsPerLevel()) {
+            isRunning = false;
+            publish(TetrisEvent.TIME_ATTACK_FAIL);
+        }
     }
 
     public int getScore() {
@@ -110,6 +232,24 @@ public class TetrisGame extends Broker {
         gameTimeSeconds = time;
     }
 
+    /**
+     * @return Total milliseconds of game time that have elapsed in the current game. Doesn't advance while paused
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return Number of tetronimos locked onto the board so far this game
+     */
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    public boolean isGameWon() {
+        return isGameWon;
+    }
+
     public TetronimoConveyor getConveyor() {
         return conveyor;
     }
@@ -121,7 +261,7 @@ public class TetrisGame extends Broker {
     public void setDifficulty(Difficulty difficulty) {
         this.difficulty = difficulty;
         this.conveyor.applySpawnRates(difficulty);
-        this.fallTimer.setDelay(difficulty.getInitialTimerDelay());
+        this.fallDelay = difficulty.getInitialTimerDelay();
     }
 
     public int getCurrentLevelTime() {
@@ -138,7 +278,7 @@ public class TetrisGame extends Broker {
         int initialDelay = difficulty.getInitialTimerDelay();
         int totalSpeedup = (level - 1) * Difficulty.TIMER_SPEEDUP;
         int newDelay = initialDelay - totalSpeedup;
-        this.fallTimer.setDelay(newDelay);
+        this.fallDelay = newDelay;
 
         this.currentLevelTime = 0;
 
@@ -150,12 +290,33 @@ public class TetrisGame extends Broker {
     }
 
     public boolean isOpenAndInBounds(int row, int column) {
-        boolean isInBounds = row >= 0 && row < VERTICAL_DIMENSION && column >= 0 && column < HORIZONTAL_DIMENSION;
-        return isInBounds && persistedSquares.get(row)[column] == null;
+        return board.isOpenAndInBounds(row, column);
+    }
+
+    /**
+     * @return Occupancy mask of 64 columns of the given row of the board, where bit N is set if column 64 * word + N
+     * holds a placed square. The active tetronimo isn't included
+     */
+    public long getRowOccupancy(int row, int word) {
+        return board.getRowOccupancy(row, word);
     }
 
     public void setColor(int row, int col, Color color) {
-        persistedSquares.get(row)[col] = color;
+        board.setColor(row, col, color);
+    }
+
+    /**
+     * @return Summary of the lines cleared by the most recently locked tetronimo
+     */
+    public LineClear getLastLineClear() {
+        return lastLineClear;
+    }
+
+    /**
+     * @return Number of rows from the bottom of the board up to and including the highest occupied square
+     */
+    public int getStackHeight() {
+        return boardSize.totalRows() - board.getStackTop();
     }
 
     public int getTotalLinesCleared() {
@@ -167,6 +328,67 @@ public class TetrisGame extends Broker {
         return totalLinesCleared - lastLevelThreshold;
     }
 
+    /**
+     * Applies a player input to the game. All player interaction should go through here so that listeners to
+     * {@link TetrisEvent#INPUT_APPLIED}, such as replay recording, observe the complete input stream. Inputs are ignored
+     * while the game isn't running
+     *
+     * @return True if the input changed the state of the game
+     */
+    public boolean apply(GameInput input) {
+        if (!isRunning) {
+            return false;
+        }
+
+        // Published before the input takes effect so that it's observed ahead of any events the input itself triggers
+        publish(TetrisEvent.INPUT_APPLIED, input);
+
+        return switch (input) {
+            case MOVE_LEFT -> moveActiveTetronimoLeft();
+            case MOVE_RIGHT -> moveActiveTetronimoRight();
+            case MOVE_DOWN -> moveActiveTetronimoDown();
+            case SUPER_SLIDE_LEFT -> superSlideActiveTetronimoLeft();
+            case SUPER_SLIDE_RIGHT -> superSlideActiveTetronimoRight();
+            case ROTATE_CLOCKWISE -> rotateActiveTetronimo(Rotation.CLOCKWISE);
+            case ROTATE_COUNTER_CLOCKWISE -> rotateActiveTetronimo(Rotation.COUNTER_CLOCKWISE);
+            case HOLD -> holdActiveTetronimo();
+            case RELEASE_HOLD -> releaseHoldTetronimo();
+            case HARD_DROP -> {
+                dropCurrentTetronimo();
+                tryMoveActiveTetronimoDown();
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Moves the active tetronimo into the hold slot and spawns the next tetronimo in its place. Only allowed if the hold
+     * slot is empty and the active tetronimo hasn't been held before
+     */
+    public boolean holdActiveTetronimo() {
+        if (holdTetronimo != null || activeTetronimo.isHold()) {
+            return false;
+        }
+
+        activeTetronimo.tagAsHold();
+        setHoldTetronimo(activeTetronimo);
+        spawn(conveyor.next());
+        return true;
+    }
+
+    /**
+     * Spawns the held tetronimo, replacing the active tetronimo
+     */
+    public boolean releaseHoldTetronimo() {
+        if (holdTetronimo == null) {
+            return false;
+        }
+
+        spawn(holdTetronimo);
+        clearHoldTetronimo();
+        return true;
+    }
+
     public boolean moveActiveTetronimoRight() {
         return moveTetronimo(activeTetronimo, 0, 1);
     }
@@ -179,35 +401,50 @@ public class TetrisGame extends Broker {
         return moveTetronimo(activeTetronimo, 1, 0);
     }
 
+    /**
+     * @return True if the active tetronimo could be moved by the given number of rows and columns without overlapping
+     * the stack or leaving the board. Nothing is moved
+     */
+    public boolean canMoveActiveTetronimo(int rowMove, int columnMove) {
+        return activeTetronimo != null
+                && board.fits(activeTetronimo.getShape(), activeTetronimo.getRow() + rowMove, activeTetronimo.getColumn() + columnMove);
+    }
+
     public void clearActiveTetronimo() {
         this.activeTetronimo = null;
     }
 
-    @SuppressWarnings("StatementWithEmptyBody")
     public void dropCurrentTetronimo() {
-        while (moveActiveTetronimoDown()) {}
+        int dropDistance = board.dropDistance(activeTetronimo.getShape(), activeTetronimo.getRow(), activeTetronimo.getColumn());
+        if (dropDistance > 0) {
+            activeTetronimo.move(dropDistance, 0);
+        }
     }
 
-    @SuppressWarnings("StatementWithEmptyBody")
-    public void superSlideActiveTetronimoLeft() {
-        while (moveActiveTetronimoLeft()) {}
+    /**
+     * @return True if the active tetronimo moved at all
+     */
+    public boolean superSlideActiveTetronimoLeft() {
+        boolean moved = false;
+        while (moveActiveTetronimoLeft()) {
+            moved = true;
+        }
+        return moved;
     }
 
-    @SuppressWarnings("StatementWithEmptyBody")
-    public void superSlideActiveTetronimoRight() {
-        while (moveActiveTetronimoRight()) {}
+    /**
+     * @return True if the active tetronimo moved at all
+     */
+    public boolean superSlideActiveTetronimoRight() {
+        boolean moved = false;
+        while (moveActiveTetronimoRight()) {
+            moved = true;
+        }
+        return moved;
     }
 
     private boolean moveTetronimo(Tetronimo tetronimo, int rowMove, int columnMove) {
-        boolean canMoveBeMade = tetronimo.getCurrentSquares()
-                .stream()
-                .allMatch(currentSquare -> {
-                    int potentialRow = currentSquare.row() + rowMove;
-                    int potentialColumn = currentSquare.column() + columnMove;
-                    return isOpenAndInBounds(potentialRow, potentialColumn);
-                });
-
-        if (canMoveBeMade) {
+        if (board.fits(tetronimo.getShape(), tetronimo.getRow() + rowMove, tetronimo.getColumn() + columnMove)) {
             tetronimo.move(rowMove, columnMove);
             return true;
         } else {
@@ -216,13 +453,7 @@ public class TetrisGame extends Broker {
     }
 
     public boolean rotateActiveTetronimo(Rotation rotation) {
-        Collection<ColoredSquare> squaresAfterRotation = activeTetronimo.copy().rotate(rotation).getCurrentSquares();
-
-        boolean areRotatedSquaresLegal = squaresAfterRotation
-                .stream()
-                .allMatch(squareAfterRotation -> isOpenAndInBounds(squareAfterRotation.row(), squareAfterRotation.column()));
-
-        if (areRotatedSquaresLegal) {
+        if (board.fits(activeTetronimo.getShapeAfter(rotation), activeTetronimo.getRow(), activeTetronimo.getColumn())) {
             activeTetronimo.rotate(rotation);
             return true;
         } else {
@@ -230,29 +461,39 @@ public class TetrisGame extends Broker {
         }
     }
 
-    @SuppressWarnings("StatementWithEmptyBody")
+    /**
+     * Ghost squares are cached until the active tetronimo moves (which replaces its square collection) or the board
+     * changes, so repeated repaints of the same position don't recompute them
+     */
     private Collection<ColoredSquare> getGhostSquares() {
         if (activeTetronimo == null) {
             return List.of();
         }
 
-        Tetronimo activeTetronimoCopy = activeTetronimo.copy();
-        Collection<ColoredSquare> currentActiveTetronimoSquares = activeTetronimoCopy.getCurrentSquares();
-
-        while (moveTetronimo(activeTetronimoCopy, 1, 0)) {
-            // drop as far as possible
+        Collection<ColoredSquare> activeTetronimoSquares = activeTetronimo.getCurrentSquares();
+        if (activeTetronimoSquares != ghostCachedForSquares || board.getVersion() != ghostCachedForBoardVersion) {
+            ghostSquaresCached = calculateGhostSquares();
+            ghostCachedForSquares = activeTetronimoSquares;
+            ghostCachedForBoardVersion = board.getVersion();
         }
-        Collection<ColoredSquare> ghostSquares = new ArrayList<>(activeTetronimoCopy.getCurrentSquares());
 
-        // remove any ghost squares that overlap with the current active tetronimo
-        ghostSquares.removeIf(ghostSquare ->
-                currentActiveTetronimoSquares.stream().anyMatch(activeTetronimoSquare ->
-                        activeTetronimoSquare.row() == ghostSquare.row() && activeTetronimoSquare.column() == ghostSquare.column())
-        );
+        return ghostSquaresCached;
+    }
+
+    private Collection<ColoredSquare> calculateGhostSquares() {
+        TetronimoShape shape = activeTetronimo.getShape();
+        int row = activeTetronimo.getRow();
+        int column = activeTetronimo.getColumn();
+        int dropDistance = board.dropDistance(shape, row, column);
 
-        return ghostSquares.stream()
-                .map(sq -> new ColoredSquare(null, sq.row(), sq.column()))
-                .toList();
+        List<ColoredSquare> ghostSquares = new ArrayList<>(shape.getOffsets().length);
+        for (int[] offset : shape.getOffsets()) {
+            // Skip any ghost squares that overlap with the active tetronimo itself
+            if (!shape.contains(offset[0] + dropDistance, offset[1])) {
+                ghostSquares.add(new ColoredSquare(null, row + offset[0] + dropDistance, column + offset[1]));
+            }
+        }
+        return ghostSquares;
     }
 
     /**
@@ -265,60 +506,84 @@ public class TetrisGame extends Broker {
         }
 
         persistActiveTetronimoColors();
-        int linesCleared = clearCompleteLines();
+        piecesPlaced++;
+        lastLineClear = clearCompleteLines();
 
-        if (linesCleared > 0) {
-            onLinesCleared(linesCleared);
+        if (lastLineClear.count() > 0) {
+            onLinesCleared(lastLineClear.count());
         }
 
         if (!isGameWon) {
             spawn(conveyor.next());
         }
+        if (rewindHistory != null && isRunning) {
+            rewindHistory.record(this);
+        }
     }
 
-    private int clearCompleteLines() {
-        int linesCleared = 0;
-
-        for (int rowIndex = 0; rowIndex < VERTICAL_DIMENSION && linesCleared < 4; rowIndex++) {
-            Color[] colorsForRow = persistedSquares.get(rowIndex);
-            boolean isRowComplete = Stream.of(colorsForRow).allMatch(Objects::nonNull);
-            if (isRowComplete) {
-                persistedSquares.remove(rowIndex);
-                persistedSquares.offerFirst(new Color[HORIZONTAL_DIMENSION]);
-                linesCleared++;
-            }
+    /**
+     * Removes any lines completed by the active tetronimo. Only the rows the tetronimo occupies can have been completed
+     * by it, so those are the only rows checked
+     */
+    private LineClear clearCompleteLines() {
+        TetronimoShape shape = activeTetronimo.getShape();
+        int topRow = activeTetronimo.getRow() + shape.getTopOffset();
+        int bottomRow = activeTetronimo.getRow() + shape.getBottomOffset();
+
+        int linesCleared = board.clearFullRows(topRow, bottomRow, clearedRowsBuffer);
+        if (linesCleared == 0) {
+            return LineClear.NONE;
         }
 
-        return linesCleared;
+        return new LineClear(Arrays.copyOf(clearedRowsBuffer, linesCleared), board.isEmpty());
     }
 
     public void persistActiveTetronimoColors() {
         if (activeTetronimo != null) {
-            for (var square : activeTetronimo.getCurrentSquares()) {
-                setColor(square.row(), square.column(), square.color());
-            }
+            board.place(activeTetronimo.getShape(), activeTetronimo.getRow(), activeTetronimo.getColumn(), activeTetronimo.getType().getColor());
         }
     }
 
+    /**
+     * Starts a new game, seeded with the next seed from this instance's seed sequence
+     */
     public void reset() {
+        reset(seedSequence.nextLong());
+    }
+
+    /**
+     * Starts a new game whose piece sequence is determined entirely by the given seed
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+
         setGameTime(0);
+        this.elapsedMillis = 0;
+        this.piecesPlaced = 0;
         setScore(0);
         setLevel(1);
 
         this.isGameWon = false;
         this.totalLinesCleared = 0;
+        this.lastLineClear = LineClear.NONE;
         this.currentLevelTime = 0;
 
         clearActiveTetronimo();
         clearHoldTetronimo();
 
-        this.persistedSquares.forEach(row -> Arrays.fill(row, null));
+        this.board.clear();
 
-        this.conveyor.reset();
+        this.conveyor.reset(seed);
         spawn(this.conveyor.next());
 
-        this.gameTimer.start();
-        this.fallTimer.start();
+        this.fallDelayElapsed = 0;
+        this.secondElapsed = 0;
+        this.isRunning = true;
+
+        if (rewindHistory != null) {
+            rewindHistory.clear();
+            rewindHistory.record(this);
+        }
     }
 
     private void onLinesCleared(int completedLines) {
@@ -333,9 +598,8 @@ public class TetrisGame extends Broker {
         if (gameMode == GameMode.FREE_PLAY) {
             totalLinesCleared += completedLines;
 
-            if (fallTimer.getDelay() > FREE_PLAY_MINIMUM_FALL_TIMER_DELAY) {
-                int newDelay = Math.max(difficulty.getInitialTimerDelay() - (totalLinesCleared * 2), FREE_PLAY_MINIMUM_FALL_TIMER_DELAY);
-                fallTimer.setDelay(newDelay);
+            if (fallDelay > FREE_PLAY_MINIMUM_FALL_TIMER_DELAY) {
+                fallDelay = Math.max(difficulty.getInitialTimerDelay() - (totalLinesCleared * 2), FREE_PLAY_MINIMUM_FALL_TIMER_DELAY);
             }
         } else {
             int maxLinesCleared = difficulty.getLinesPerLevel() * MAX_LEVEL;
@@ -343,8 +607,7 @@ public class TetrisGame extends Broker {
 
             if (totalLinesCleared == maxLinesCleared) {
                 isGameWon = true;
-                fallTimer.stop();
-                gameTimer.stop();
+                isRunning = false;
                 clearActiveTetronimo(); // Needed so that this tetronimo's squares don't get re-painted during victory clear animation
                 publish(TetrisEvent.GAME_WON);
             } else {
@@ -357,31 +620,94 @@ public class TetrisGame extends Broker {
         }
 
         setScore(newScore);
-        publish(TetrisEvent.LINES_CLEARED, completedLines);
+        LINES_CLEARED.add(completedLines);
+        publish(TetrisEvent.LINES_CLEARED, completedLines, lastLineClear);
+    }
+
+    /**
+     * Captures the full state of the current game. Board rows are shared with the snapshot until the game next changes
+     * them, so this is cheap enough to call after every placement
+     */
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(
+                seed,
+                gameMode,
+                difficulty,
+                boardSize,
+                board.snapshot(),
+                activeTetronimo == null ? null : activeTetronimo.copy(),
+                holdTetronimo == null ? null : holdTetronimo.copy(),
+                conveyor.saveState(),
+                lastLineClear,
+                totalLinesCleared,
+                score,
+                level,
+                gameTimeSeconds,
+                elapsedMillis,
+                piecesPlaced,
+                currentLevelTime,
+                fallDelay,
+                fallDelayElapsed,
+                secondElapsed,
+                isRunning,
+                isGameWon
+        );
+    }
+
+    /**
+     * Puts the game back into the state captured by the given snapshot, which can come from this or any other instance.
+     * The snapshot itself is left untouched and can be restored again. No events are published, so anything displaying
+     * the game needs to refresh itself afterwards
+     */
+    public void restore(GameSnapshot snapshot) {
+        setBoardSize(snapshot.boardSize);
+        board.restore(snapshot.board);
+
+        if (difficulty != snapshot.difficulty) {
+            this.difficulty = snapshot.difficulty;
+            this.conveyor.applySpawnRates(snapshot.difficulty);
+        }
+        this.conveyor.restoreState(snapshot.conveyor);
+
+        this.seed = snapshot.seed;
+        this.gameMode = snapshot.gameMode;
+        this.activeTetronimo = snapshot.activeTetronimo == null ? null : snapshot.activeTetronimo.copy();
+        this.holdTetronimo = snapshot.holdTetronimo == null ? null : snapshot.holdTetronimo.copy();
+        this.lastLineClear = snapshot.lastLineClear;
+        this.totalLinesCleared = snapshot.totalLinesCleared;
+        this.score = snapshot.score;
+        this.level = snapshot.level;
+        this.gameTimeSeconds = snapshot.gameTimeSeconds;
+        this.elapsedMillis = snapshot.elapsedMillis;
+        this.piecesPlaced = snapshot.piecesPlaced;
+        this.currentLevelTime = snapshot.currentLevelTime;
+        this.fallDelay = snapshot.fallDelay;
+        this.fallDelayElapsed = snapshot.fallDelayElapsed;
+        this.secondElapsed = snapshot.secondElapsed;
+        this.isRunning = snapshot.isRunning;
+        this.isGameWon = snapshot.isGameWon;
     }
 
     /**
      * Attempts to spawn the given tetronimo object in the board model, replacing the current active tetronimo.
      */
     public void spawn(Tetronimo tetronimo) {
+        TetronimoShape spawnShape = tetronimo.getType().getShape(0);
         int startRow = tetronimo.getType().getStartRow();
-        int startCol = HORIZONTAL_DIMENSION / 2;
+        int startCol = boardSize.columns() / 2;
 
         while (true) {
-            var spawnSquares = tetronimo.getType().calculateOccupiedSquares(0, startRow, startCol);
-
-            boolean anyVisible = spawnSquares.stream().anyMatch(square -> square.row() >= LEADING_OVERFLOW_ROWS);
+            boolean anyVisible = startRow + spawnShape.getBottomOffset() >= LEADING_OVERFLOW_ROWS;
             if (!anyVisible) {
-                fallTimer.stop();
-                gameTimer.stop();
+                isRunning = false;
                 publish(TetrisEvent.SPAWN_FAIL, tetronimo);
                 return;
             }
 
-            boolean allOpen = spawnSquares.stream().allMatch(square -> isOpenAndInBounds(square.row(), square.column()));
-            if (allOpen) {
+            if (board.fits(spawnShape, startRow, startCol)) {
                 tetronimo.setLocation(startRow, startCol);
                 this.activeTetronimo = tetronimo;
+                PIECES_SPAWNED.increment();
                 return;
             } else {
                 startRow--; // Try to push piece upwards past board bounds if we can
@@ -390,25 +716,78 @@ public class TetrisGame extends Broker {
     }
 
     public Collection<ColoredSquare> getColoredSquares() {
-        List<ColoredSquare> squares = new ArrayList<>(HORIZONTAL_DIMENSION * VERTICAL_DIMENSION);
+        return getColoredSquares(0, boardSize.totalRows() - 1);
+    }
+
+    /**
+     * @return Colored squares between the given board rows, inclusive. Placed squares are only read from rows that
+     * hold part of the stack, so the cost follows the size of the requested area and how much of it is filled rather
+     * than the size of the board
+     */
+    public Collection<ColoredSquare> getColoredSquares(int fromRow, int toRow) {
+        List<ColoredSquare> squares = new ArrayList<>();
 
         if (activeTetronimo != null) {
-            squares.addAll(activeTetronimo.getCurrentSquares());
+            addSquaresInRows(activeTetronimo.getCurrentSquares(), fromRow, toRow, squares);
             if (this.ghostSquaresEnabled) {
-                squares.addAll(getGhostSquares());
+                addSquaresInRows(getGhostSquares(), fromRow, toRow, squares);
             }
         }
 
-        for (int rowIndex = 0; rowIndex < VERTICAL_DIMENSION; rowIndex++) {
-            Color[] rowColors = persistedSquares.get(rowIndex);
-            for (int columnIndex = 0; columnIndex < rowColors.length; columnIndex++) {
-                if (rowColors[columnIndex] != null) {
-                    squares.add(new ColoredSquare(rowColors[columnIndex], rowIndex, columnIndex));
-                }
+        board.collectSquares(fromRow, toRow, squares);
+
+        return squares;
+    }
+
+    /**
+     * Writes what's shown at every position between the given board rows, inclusive, into the array one row after
+     * another from index 0: the color of the active tetronimo or a placed square, {@link #GHOST_COLOR} for a ghost
+     * square, or null for an empty position. The array must hold at least {@code (toRow - fromRow + 1) * columns}
+     * entries. Unlike {@link #getColoredSquares(int, int)} this allocates nothing, so displays can compare successive
+     * states of the board cheaply
+     */
+    public void copySquareColors(int fromRow, int toRow, Color[] colors) {
+        board.copyColors(fromRow, toRow, colors, 0);
+
+        if (activeTetronimo != null) {
+            if (this.ghostSquaresEnabled) {
+                copySquaresInRows(getGhostSquares(), GHOST_COLOR, fromRow, toRow, colors);
             }
+            copySquaresInRows(activeTetronimo.getCurrentSquares(), null, fromRow, toRow, colors);
         }
+    }
 
-        return squares;
+    /**
+     * Writes the color of the placed square at every position between the given board rows, inclusive, into the array
+     * the same way as {@link #copySquareColors}, leaving out the active tetronimo and its ghost
+     */
+    public void copyPlacedColors(int fromRow, int toRow, Color[] colors) {
+        board.copyColors(fromRow, toRow, colors, 0);
+    }
+
+    /**
+     * @return A counter which changes whenever a square is placed on or cleared from the board, such as when a
+     * tetronimo locks or lines are cleared. Moving the active tetronimo doesn't change it
+     */
+    public int getBoardVersion() {
+        return board.getVersion();
+    }
+
+    private void copySquaresInRows(Collection<ColoredSquare> source, Color color, int fromRow, int toRow, Color[] colors) {
+        int columns = boardSize.columns();
+        for (ColoredSquare square : source) {
+            if (square.row() >= fromRow && square.row() <= toRow) {
+                colors[(square.row() - fromRow) * columns + square.column()] = color != null ? color : square.color();
+            }
+        }
+    }
+
+    private static void addSquaresInRows(Collection<ColoredSquare> source, int fromRow, int toRow, Collection<ColoredSquare> squares) {
+        for (ColoredSquare square : source) {
+            if (square.row() >= fromRow && square.row() <= toRow) {
+                squares.add(square);
+            }
+        }
     }
 
 }
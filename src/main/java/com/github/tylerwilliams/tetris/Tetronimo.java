@@ -34,10 +34,33 @@ public class Tetronimo {
         return isHold;
     }
 
-    TetronimoType getType() {
+    public TetronimoType getType() {
         return type;
     }
 
+    public int getRow() {
+        return row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getOrientation() {
+        return orientation;
+    }
+
+    public TetronimoShape getShape() {
+        return type.getShape(orientation);
+    }
+
+    /**
+     * @return The shape this tetronimo would take on if rotated in the given direction
+     */
+    TetronimoShape getShapeAfter(Rotation rotation) {
+        return type.getShape(rotateOrientation(orientation, rotation));
+    }
+
     void move(int rowMove, int columnMove) {
         setLocation(row + rowMove, column + columnMove);
     }
@@ -49,6 +72,14 @@ public class Tetronimo {
     }
 
     Tetronimo rotate(Rotation rotation) {
+        orientation = rotateOrientation(orientation, rotation);
+
+        this.currentSquaresCached = null;
+
+        return this;
+    }
+
+    private static int rotateOrientation(int orientation, Rotation rotation) {
         int orientationChange = rotation == Rotation.CLOCKWISE ? 1 : -1;
         orientation += orientationChange;
         if (orientation > 3) {
@@ -57,10 +88,21 @@ public class Tetronimo {
         if (orientation < 0) {
             orientation = 3;
         }
+        return orientation;
+    }
 
-        this.currentSquaresCached = null;
-
-        return this;
+    /**
+     * Recreates a tetronimo at a previously saved position
+     */
+    static Tetronimo at(TetronimoType type, int orientation, int row, int column, boolean isHold) {
+        type.getShape(orientation); // validates the orientation
+
+        Tetronimo tetronimo = new Tetronimo(type);
+        tetronimo.orientation = orientation;
+        tetronimo.row = row;
+        tetronimo.column = column;
+        tetronimo.isHold = isHold;
+        return tetronimo;
     }
 
     Tetronimo copy() {
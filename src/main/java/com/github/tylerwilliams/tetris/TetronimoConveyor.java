@@ -8,6 +8,7 @@ import java.util.Queue;
 public final class TetronimoConveyor {
     private final List<TetronimoType> tetronimoTypeSampleList = new ArrayList<>();
     private final Queue<Tetronimo> conveyor = new ArrayDeque<>();
+    private GameRandom random = new GameRandom(0);
 
     public Tetronimo next() {
         conveyor.offer(generateTetronimo());
@@ -18,12 +19,33 @@ public final class TetronimoConveyor {
         return conveyor.peek();
     }
 
-    void reset() {
+    void reset(long seed) {
+        random = new GameRandom(seed);
         conveyor.clear();
         conveyor.add(generateTetronimo());
         conveyor.add(generateTetronimo());
     }
 
+    /**
+     * @return Everything needed to continue this conveyor's sequence from its current position
+     */
+    State saveState() {
+        TetronimoType[] queued = new TetronimoType[conveyor.size()];
+        int i = 0;
+        for (Tetronimo tetronimo : conveyor) {
+            queued[i++] = tetronimo.getType();
+        }
+        return new State(random.getState(), queued);
+    }
+
+    void restoreState(State state) {
+        random = new GameRandom(state.randomState());
+        conveyor.clear();
+        for (TetronimoType type : state.queued()) {
+            conveyor.add(new Tetronimo(type));
+        }
+    }
+
     void applySpawnRates(Difficulty difficulty) {
         tetronimoTypeSampleList.clear();
 
@@ -37,8 +59,15 @@ public final class TetronimoConveyor {
     }
 
     private Tetronimo generateTetronimo() {
-        TetronimoType randomType = Utility.sample(tetronimoTypeSampleList);
+        TetronimoType randomType = Utility.sample(tetronimoTypeSampleList, random);
         return new Tetronimo(randomType);
     }
+
+    /**
+     * @param randomState State of the conveyor's random generator
+     * @param queued      Types of the tetronimos waiting on the conveyor, in the order they'll come off it
+     */
+    record State(long randomState, TetronimoType[] queued) {
+    }
 }
 
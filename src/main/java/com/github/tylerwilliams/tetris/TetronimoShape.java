@@ -0,0 +1,118 @@
+package com.github.tylerwilliams.tetris;
+
+import java.util.Arrays;
+
+/**
+ * Precompiled geometry for a single tetronimo orientation. All offsets are relative to the tetronimo's anchor square,
+ * and row masks are normalized so that bit 0 corresponds to the leftmost column of the bounding box.
+ */
+public final class TetronimoShape {
+    private final int[][] offsets;
+    private final int topOffset, bottomOffset;
+    private final int leftOffset, rightOffset;
+    private final long[] rowMasks;
+    private final int[] columnBottoms;
+
+    TetronimoShape(int[][] offsets) {
+        this.offsets = offsets;
+
+        int top = Integer.MAX_VALUE, bottom = Integer.MIN_VALUE;
+        int left = Integer.MAX_VALUE, right = Integer.MIN_VALUE;
+        for (int[] offset : offsets) {
+            top = Math.min(top, offset[0]);
+            bottom = Math.max(bottom, offset[0]);
+            left = Math.min(left, offset[1]);
+            right = Math.max(right, offset[1]);
+        }
+
+        this.topOffset = top;
+        this.bottomOffset = bottom;
+        this.leftOffset = left;
+        this.rightOffset = right;
+        this.rowMasks = new long[bottom - top + 1];
+        this.columnBottoms = new int[right - left + 1];
+        Arrays.fill(columnBottoms, Integer.MIN_VALUE);
+
+        for (int[] offset : offsets) {
+            int maskRow = offset[0] - top;
+            int maskColumn = offset[1] - left;
+            rowMasks[maskRow] |= 1L << maskColumn;
+            columnBottoms[maskColumn] = Math.max(columnBottoms[maskColumn], offset[0]);
+        }
+    }
+
+    int[][] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * @return Row offset of the highest square in this shape
+     */
+    public int getTopOffset() {
+        return topOffset;
+    }
+
+    /**
+     * @return Row offset of the lowest square in this shape
+     */
+    public int getBottomOffset() {
+        return bottomOffset;
+    }
+
+    /**
+     * @return Column offset of the leftmost square in this shape
+     */
+    public int getLeftOffset() {
+        return leftOffset;
+    }
+
+    /**
+     * @return Column offset of the rightmost square in this shape
+     */
+    public int getRightOffset() {
+        return rightOffset;
+    }
+
+    public int getHeight() {
+        return rowMasks.length;
+    }
+
+    public int getWidth() {
+        return columnBottoms.length;
+    }
+
+    /**
+     * @return True if this shape has a square at the given offset from its anchor
+     */
+    public boolean contains(int rowOffset, int columnOffset) {
+        int maskRow = rowOffset - topOffset;
+        int maskColumn = columnOffset - leftOffset;
+        return maskRow >= 0 && maskRow < rowMasks.length
+                && maskColumn >= 0 && maskColumn < columnBottoms.length
+                && (rowMasks[maskRow] & (1L << maskColumn)) != 0;
+    }
+
+    /**
+     * @return True if the other shape covers the same pattern of squares as this one, though possibly at a different
+     * offset from its anchor
+     */
+    public boolean hasSamePattern(TetronimoShape other) {
+        return Arrays.equals(rowMasks, other.rowMasks);
+    }
+
+    /**
+     * @param maskRow Row within the bounding box, where 0 is the top row
+     * @return Occupancy mask for the row, where bit 0 is the leftmost column of the bounding box
+     */
+    public long getRowMask(int maskRow) {
+        return rowMasks[maskRow];
+    }
+
+    /**
+     * @param maskColumn Column within the bounding box, where 0 is the leftmost column
+     * @return Row offset of the lowest square in the given column
+     */
+    public int getColumnBottom(int maskColumn) {
+        return columnBottoms[maskColumn];
+    }
+}
@@ -3,6 +3,7 @@ package com.github.tylerwilliams.tetris;
 import java.awt.*;
 import java.util.Collection;
 import java.util.List;
+import java.util.random.RandomGenerator;
 import java.util.stream.Stream;
 
 public enum TetronimoType {
@@ -241,14 +242,14 @@ public enum TetronimoType {
     private static final List<Color> COLORS = Stream.of(values()).map(TetronimoType::getColor).toList();
 
     private final String name;
-    private final int[][][] offsets;
+    private final TetronimoShape[] shapes;
     private final Collection<ColoredSquare> previewPanelSquares;
     private final int startRow;
     private final Color color;
 
     TetronimoType(String name, int[][][] offsets, int[][] previewPanelSquares, int startRow, Color color) {
         this.name = name;
-        this.offsets = offsets;
+        this.shapes = Stream.of(offsets).map(TetronimoShape::new).toArray(TetronimoShape[]::new);
         this.previewPanelSquares = Stream.of(previewPanelSquares)
                 .map(coordinates -> new ColoredSquare(color, coordinates[0], coordinates[1]))
                 .toList();
@@ -268,20 +269,26 @@ public enum TetronimoType {
         return color;
     }
 
-    public Collection<ColoredSquare> calculateOccupiedSquares(int orientation, int row, int col) {
+    public TetronimoShape getShape(int orientation) {
         if (orientation < 0 || orientation > 3) {
             throw new IllegalArgumentException("Orientation value must be between 0 and 3");
         }
 
-        int[][] offsetsForOrientation = this.offsets[orientation];
+        return shapes[orientation];
+    }
 
-        return Stream.of(offsetsForOrientation)
-                .map(offset -> new ColoredSquare(color, row + offset[0], col + offset[1]))
-                .toList();
+    public Collection<ColoredSquare> calculateOccupiedSquares(int orientation, int row, int col) {
+        int[][] offsetsForOrientation = getShape(orientation).getOffsets();
+
+        ColoredSquare[] squares = new ColoredSquare[offsetsForOrientation.length];
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = new ColoredSquare(color, row + offsetsForOrientation[i][0], col + offsetsForOrientation[i][1]);
+        }
+        return List.of(squares);
     }
 
-    public static Color getRandomColor() {
-        return Utility.sample(COLORS);
+    public static Color getRandomColor(RandomGenerator random) {
+        return Utility.sample(COLORS, random);
     }
 
     @Override
@@ -1,10 +1,9 @@
 package com.github.tylerwilliams.tetris;
 
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public final class Utility {
-    private static final Random RANDOM = new Random();
 
     public static String formatSeconds(long seconds) {
         long totalMinutes = seconds / 60;
@@ -14,7 +13,7 @@ public final class Utility {
                 (secondsLeftover < 10 ? "0" : "") + secondsLeftover;
     }
 
-    static <T> T sample(List<T> items) {
-        return items.get(RANDOM.nextInt(items.size()));
+    static <T> T sample(List<T> items, RandomGenerator random) {
+        return items.get(random.nextInt(items.size()));
     }
 }
@@ -1,5 +1,9 @@
 package com.github.tylerwilliams.tetris.audio;
 
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+import com.github.tylerwilliams.tetris.task.Tasks;
+
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
@@ -7,6 +11,7 @@ import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.IOException;
 
 public class TetrisAudioSystem {
+    private static final Histogram CLIP_LOAD_TIME = Metrics.histogram("audioClipLoad");
     private static final TetrisAudioSystem INSTANCE = new TetrisAudioSystem();
 
     private static final Clip SOUNDTRACK_CLIP = getNewSystemAudioClip();
@@ -55,22 +60,22 @@ public class TetrisAudioSystem {
         return effectsEnabled;
     }
 
-    public void startSoundtrack(int level) {
+    public synchronized void startSoundtrack(int level) {
         loadAudioStream(SOUNDTRACK_CLIP, SOUNDTRACK[level - 1]);
         resumeCurrentSoundtrack();
     }
 
-    public void resumeCurrentSoundtrack() {
+    public synchronized void resumeCurrentSoundtrack() {
         if (soundtrackEnabled) {
             SOUNDTRACK_CLIP.loop(Clip.LOOP_CONTINUOUSLY);
         }
     }
 
-    public void stopCurrentSoundtrack() {
+    public synchronized void stopCurrentSoundtrack() {
         SOUNDTRACK_CLIP.stop();
     }
 
-    public void playGameOverSound() {
+    public synchronized void playGameOverSound() {
         loadAudioStream(SOUNDTRACK_CLIP, AudioFile.ZELDA_GAME_OVER);
 
         if (soundtrackEnabled) {
@@ -78,7 +83,7 @@ public class TetrisAudioSystem {
         }
     }
 
-    public void playVictoryFanfare() {
+    public synchronized void playVictoryFanfare() {
         loadAudioStream(SOUNDTRACK_CLIP, AudioFile.FINAL_FANTASY_VICTORY_FANFARE);
 
         if (soundtrackEnabled) {
@@ -132,11 +137,15 @@ public class TetrisAudioSystem {
     }
 
     private static void loadAudioStream(Clip clip, AudioFile audioFile) {
+        Tasks.checkBlockingIo();
+        long start = System.nanoTime();
         try {
             clip.close();
             clip.open(AudioSystem.getAudioInputStream(audioFile.getUrl()));
         } catch (LineUnavailableException | IOException | UnsupportedAudioFileException e) {
             throw new RuntimeException("Could not open audio stream for " + audioFile.getUrl(), e);
+        } finally {
+            CLIP_LOAD_TIME.recordSince(start);
         }
     }
 
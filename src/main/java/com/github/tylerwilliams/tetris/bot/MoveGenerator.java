@@ -0,0 +1,213 @@
+package com.github.tylerwilliams.tetris.bot;
+
+import com.github.tylerwilliams.tetris.GameInput;
+import com.github.tylerwilliams.tetris.BoardSize;
+import com.github.tylerwilliams.tetris.TetronimoShape;
+import com.github.tylerwilliams.tetris.TetronimoType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates every final placement a tetronimo can reach from a starting position using the same moves a player has:
+ * moving left, right and down one square and rotating in place. Placements only reachable by tucking under overhangs or
+ * rotating part way down are found too, not just straight hard drops.
+ * <p>
+ * The search is a breadth first search over (orientation, row, column) states, each packed into an int. Visited states
+ * are tracked in a bitset and the queue and parent links live in arrays sized for the whole board up front, so a
+ * search allocates nothing. Placements which cover the same squares in different orientations are reported once.
+ * <p>
+ * Results are kept until the next call to {@link #generate}. Instances must only be used by one thread at a time.
+ */
+public final class MoveGenerator {
+    private static final int PADDING = 3; // anchors can sit a few squares outside the board, as offsets are relative to them
+    private static final GameInput[] INPUTS = GameInput.values();
+
+    private static final int[][] CANONICAL_ORIENTATIONS = new int[TetronimoType.values().length][4];
+    private static final int[][] CANONICAL_ROW_SHIFTS = new int[TetronimoType.values().length][4];
+    private static final int[][] CANONICAL_COLUMN_SHIFTS = new int[TetronimoType.values().length][4];
+    static {
+        // An orientation's canonical form is the first orientation with the same pattern of squares. Anchoring the
+        // canonical orientation at the shifted position covers exactly the same squares
+        for (TetronimoType type : TetronimoType.values()) {
+            for (int orientation = 0; orientation < 4; orientation++) {
+                TetronimoShape shape = type.getShape(orientation);
+                int canonical = 0;
+                while (!type.getShape(canonical).hasSamePattern(shape)) {
+                    canonical++;
+                }
+
+                TetronimoShape canonicalShape = type.getShape(canonical);
+                CANONICAL_ORIENTATIONS[type.ordinal()][orientation] = canonical;
+                CANONICAL_ROW_SHIFTS[type.ordinal()][orientation] = shape.getTopOffset() - canonicalShape.getTopOffset();
+                CANONICAL_COLUMN_SHIFTS[type.ordinal()][orientation] = shape.getLeftOffset() - canonicalShape.getLeftOffset();
+            }
+        }
+    }
+
+    private final int rowSpan, columnSpan;
+    private final long[] visited;
+    private final long[] placed; // canonical states already reported as placements
+    private final int[] queue;
+    private final int[] parents;
+    private final byte[] parentInputs; // ordinal of the input which first reached each state
+    private final int[] placements;
+    private int placementCount;
+    private TetronimoType type;
+    private long nodesVisited;
+
+    public MoveGenerator() {
+        this(BoardSize.CLASSIC);
+    }
+
+    public MoveGenerator(BoardSize boardSize) {
+        this(boardSize.totalRows(), boardSize.columns());
+    }
+
+    public MoveGenerator(int rows, int columns) {
+        this.rowSpan = rows + 2 * PADDING;
+        this.columnSpan = columns + 2 * PADDING;
+
+        int stateCount = 4 * rowSpan * columnSpan;
+        this.visited = new long[(stateCount + Long.SIZE - 1) / Long.SIZE];
+        this.placed = new long[visited.length];
+        this.queue = new int[stateCount];
+        this.parents = new int[stateCount];
+        this.parentInputs = new byte[stateCount];
+        this.placements = new int[stateCount];
+    }
+
+    /**
+     * Searches for every placement reachable from the given starting position
+     *
+     * @return The number of distinct placements found, which can then be read with the accessors below. Zero if the
+     * tetronimo doesn't fit at the starting position
+     */
+    public int generate(SearchBoard board, TetronimoType type, int orientation, int row, int column) {
+        Arrays.fill(visited, 0L);
+        Arrays.fill(placed, 0L);
+        this.placementCount = 0;
+        this.type = type;
+
+        if (!board.fits(type.getShape(orientation), row, column)) {
+            return 0;
+        }
+
+        int start = encode(orientation, row, column);
+        visited[start >>> 6] |= 1L << start;
+        parents[start] = -1;
+        queue[0] = start;
+
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int state = queue[head++];
+            int stateColumn = state % columnSpan - PADDING;
+            int stateRow = state / columnSpan % rowSpan - PADDING;
+            int stateOrientation = state / (columnSpan * rowSpan);
+            TetronimoShape shape = type.getShape(stateOrientation);
+
+            if (board.fits(shape, stateRow + 1, stateColumn)) {
+                tail = visit(state + columnSpan, state, GameInput.MOVE_DOWN, tail);
+            } else {
+                recordPlacement(state, stateOrientation, stateRow, stateColumn);
+            }
+
+            if (board.fits(shape, stateRow, stateColumn - 1)) {
+                tail = visit(state - 1, state, GameInput.MOVE_LEFT, tail);
+            }
+            if (board.fits(shape, stateRow, stateColumn + 1)) {
+                tail = visit(state + 1, state, GameInput.MOVE_RIGHT, tail);
+            }
+
+            int clockwise = (stateOrientation + 1) & 3;
+            if (board.fits(type.getShape(clockwise), stateRow, stateColumn)) {
+                tail = visit(encode(clockwise, stateRow, stateColumn), state, GameInput.ROTATE_CLOCKWISE, tail);
+            }
+            int counterClockwise = (stateOrientation + 3) & 3;
+            if (board.fits(type.getShape(counterClockwise), stateRow, stateColumn)) {
+                tail = visit(encode(counterClockwise, stateRow, stateColumn), state, GameInput.ROTATE_COUNTER_CLOCKWISE, tail);
+            }
+        }
+
+        nodesVisited += tail;
+        return placementCount;
+    }
+
+    public int getOrientation(int placement) {
+        return placements[placement] / (columnSpan * rowSpan);
+    }
+
+    public int getRow(int placement) {
+        return placements[placement] / columnSpan % rowSpan - PADDING;
+    }
+
+    public int getColumn(int placement) {
+        return placements[placement] % columnSpan - PADDING;
+    }
+
+    /**
+     * @return The shortest sequence of inputs from the starting position to the given placement. Moves straight down
+     * at the end are folded into a single hard drop, which also locks the tetronimo in place
+     */
+    public List<GameInput> getInputs(int placement) {
+        int length = 0;
+        for (int state = placements[placement]; parents[state] != -1; state = parents[state]) {
+            length++;
+        }
+
+        GameInput[] path = new GameInput[length];
+        int index = length;
+        for (int state = placements[placement]; parents[state] != -1; state = parents[state]) {
+            path[--index] = INPUTS[parentInputs[state]];
+        }
+
+        while (length > 0 && path[length - 1] == GameInput.MOVE_DOWN) {
+            length--;
+        }
+
+        List<GameInput> inputs = new ArrayList<>(length + 1);
+        for (int i = 0; i < length; i++) {
+            inputs.add(path[i]);
+        }
+        inputs.add(GameInput.HARD_DROP);
+        return inputs;
+    }
+
+    /**
+     * @return Total number of search states expanded by this generator since it was created
+     */
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    private int visit(int state, int parent, GameInput input, int tail) {
+        long bit = 1L << state;
+        if ((visited[state >>> 6] & bit) != 0) {
+            return tail;
+        }
+
+        visited[state >>> 6] |= bit;
+        parents[state] = parent;
+        parentInputs[state] = (byte) input.ordinal();
+        queue[tail] = state;
+        return tail + 1;
+    }
+
+    private void recordPlacement(int state, int orientation, int row, int column) {
+        int typeIndex = type.ordinal();
+        int canonical = encode(CANONICAL_ORIENTATIONS[typeIndex][orientation],
+                row + CANONICAL_ROW_SHIFTS[typeIndex][orientation],
+                column + CANONICAL_COLUMN_SHIFTS[typeIndex][orientation]);
+
+        long bit = 1L << canonical;
+        if ((placed[canonical >>> 6] & bit) == 0) {
+            placed[canonical >>> 6] |= bit;
+            placements[placementCount++] = state;
+        }
+    }
+
+    private int encode(int orientation, int row, int column) {
+        return (orientation * rowSpan + row + PADDING) * columnSpan + column + PADDING;
+    }
+}
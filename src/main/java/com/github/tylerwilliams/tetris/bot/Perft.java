@@ -0,0 +1,133 @@
+package com.github.tylerwilliams.tetris.bot;
+
+import com.github.tylerwilliams.tetris.Difficulty;
+import com.github.tylerwilliams.tetris.TetrisGame;
+import com.github.tylerwilliams.tetris.TetronimoType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Counts the distinct sequences of placements reachable when the given tetronimos are placed one after another, in the
+ * spirit of chess perft. A placement count that changes for the same board and pieces means move generation changed
+ * behavior; the node count and timing give the generator's throughput. The hold slot isn't used.
+ */
+public final class Perft {
+    private final TetronimoType[] pieces;
+    private final SearchBoard[] boards;
+    private final MoveGenerator[] generators;
+
+    public Perft(TetronimoType[] pieces) {
+        this.pieces = pieces;
+        this.boards = new SearchBoard[pieces.length];
+        this.generators = new MoveGenerator[pieces.length];
+        for (int ply = 0; ply < pieces.length; ply++) {
+            boards[ply] = new SearchBoard();
+            generators[ply] = new MoveGenerator();
+        }
+    }
+
+    /**
+     * @return The number of placement sequences for the first {@code depth} pieces, starting from the given board
+     */
+    public long count(SearchBoard board, int depth) {
+        if (depth > pieces.length) {
+            throw new IllegalArgumentException("Only " + pieces.length + " pieces are known");
+        }
+
+        boards[0].copyFrom(board);
+        return count(0, depth);
+    }
+
+    /**
+     * @return Total number of search states expanded by every search this instance has run
+     */
+    public long getNodesVisited() {
+        long nodes = 0;
+        for (MoveGenerator generator : generators) {
+            nodes += generator.getNodesVisited();
+        }
+        return nodes;
+    }
+
+    private long count(int ply, int depth) {
+        if (ply == depth) {
+            return 1;
+        }
+
+        SearchBoard board = boards[ply];
+        TetronimoType type = pieces[ply];
+        int spawnRow = board.spawnRow(type);
+        if (spawnRow == Integer.MIN_VALUE) {
+            return 0;
+        }
+
+        MoveGenerator generator = generators[ply];
+        int placementCount = generator.generate(board, type, 0, spawnRow, board.spawnColumn());
+        if (ply + 1 == depth) {
+            return placementCount;
+        }
+
+        long sequences = 0;
+        for (int i = 0; i < placementCount; i++) {
+            SearchBoard next = boards[ply + 1];
+            next.copyFrom(board);
+            next.place(type.getShape(generator.getOrientation(i)), generator.getRow(i), generator.getColumn(i));
+            sequences += count(ply + 1, depth);
+        }
+        return sequences;
+    }
+
+    /**
+     * @return The first {@code count} tetronimos a game reset with the given seed hands out, starting with its active one
+     */
+    public static TetronimoType[] drawPieces(long seed, int count) {
+        TetrisGame game = new TetrisGame();
+        game.setDifficulty(Difficulty.MEDIUM);
+        game.reset(seed);
+        TetronimoType[] pieces = new TetronimoType[count];
+        pieces[0] = game.getActiveTetronimo().getType();
+        for (int ply = 1; ply < count; ply++) {
+            pieces[ply] = game.getConveyor().next().getType();
+        }
+        return pieces;
+    }
+
+    /**
+     * Prints placement counts for every depth up to the given one. Arguments are the depth and, optionally, the seed
+     * the pieces are drawn with and a text file describing the starting board. Each line of the file is a row, with
+     * '#' for an occupied square and anything else for an empty one; the last line is the bottom row.
+     */
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        SearchBoard board = new SearchBoard();
+        if (args.length > 2) {
+            List<String> lines = Files.readAllLines(Path.of(args[2]));
+            for (int i = 0; i < Math.min(lines.size(), board.getRows()); i++) {
+                String line = lines.get(lines.size() - 1 - i);
+                long rowMask = 0;
+                for (int column = 0; column < Math.min(line.length(), board.getColumns()); column++) {
+                    if (line.charAt(column) == '#') {
+                        rowMask |= 1L << column;
+                    }
+                }
+                board.setRowOccupancy(board.getRows() - 1 - i, rowMask);
+            }
+        }
+
+        TetronimoType[] pieces = drawPieces(seed, depth);
+        for (int d = 1; d <= depth; d++) {
+            Perft perft = new Perft(pieces);
+            long start = System.nanoTime();
+            long sequences = perft.count(board, d);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("depth %d (%s): %d placements, %d nodes, %.3fs, %.0f nodes/s%n",
+                    d, pieces[d - 1], sequences, perft.getNodesVisited(), seconds, perft.getNodesVisited() / seconds);
+        }
+    }
+}
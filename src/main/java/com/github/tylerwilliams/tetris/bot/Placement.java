@@ -0,0 +1,15 @@
+package com.github.tylerwilliams.tetris.bot;
+
+import com.github.tylerwilliams.tetris.GameInput;
+import com.github.tylerwilliams.tetris.TetronimoType;
+
+import java.util.List;
+
+/**
+ * A final resting position chosen for a tetronimo, along with the inputs which get it there from where it spawned
+ *
+ * @param inputs Inputs to apply to the game, in order, ending with the one that locks the tetronimo in place
+ * @param score  Heuristic score the placement was chosen with
+ */
+public record Placement(TetronimoType type, int orientation, int row, int column, List<GameInput> inputs, double score) {
+}
@@ -0,0 +1,237 @@
+package com.github.tylerwilliams.tetris.bot;
+
+import com.github.tylerwilliams.tetris.BoardSize;
+import com.github.tylerwilliams.tetris.GameInput;
+import com.github.tylerwilliams.tetris.TetrisGame;
+import com.github.tylerwilliams.tetris.Tetronimo;
+import com.github.tylerwilliams.tetris.TetronimoShape;
+import com.github.tylerwilliams.tetris.TetronimoType;
+import com.github.tylerwilliams.tetris.sim.SimulationPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.random.RandomGenerator;
+
+/**
+ * Automatic player which searches every placement of the active tetronimo, and of the tetronimo it could swap in from
+ * the hold slot, scoring each by the best placement the next known tetronimo could follow it with. Placements for the
+ * move itself come from a {@link MoveGenerator}, so tucks and spins are considered; the follow up placements are only
+ * an estimate, so they're limited to straight drops to keep the search fast. The search runs on {@link SearchBoard}
+ * copies which are reused between decisions, so deciding on a move allocates nothing until the chosen placement is
+ * turned into inputs.
+ * <p>
+ * Instances keep scratch state, sized for the board of the last game they played, and must only be used by one thread
+ * at a time.
+ */
+public class PlacementBot implements SimulationPolicy {
+    private static final int[] ROTATION_OPTIONS = {0, 1, -1, 2, -2}; // signed number of clockwise rotations to try
+    private static final double GAME_OVER_SCORE = Double.NEGATIVE_INFINITY;
+
+    private final PlacementHeuristic heuristic;
+    private BoardSize boardSize;
+    private SearchBoard root, afterFirst, afterSecond;
+    private MoveGenerator activeMoves;
+    private MoveGenerator swappedMoves; // moves for a tetronimo brought in via the hold slot
+    private PlacementList followUpPlacements;
+
+    private double bestScore;
+    private GameInput bestHoldInput;
+    private TetronimoType bestType;
+    private MoveGenerator bestMoves;
+    private int bestPlacement;
+
+    public PlacementBot() {
+        this(PlacementHeuristic.DEFAULT);
+    }
+
+    public PlacementBot(PlacementHeuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    private void allocate(BoardSize boardSize) {
+        this.root = new SearchBoard(boardSize);
+        this.afterFirst = new SearchBoard(boardSize);
+        this.afterSecond = new SearchBoard(boardSize);
+        this.activeMoves = new MoveGenerator(boardSize);
+        this.swappedMoves = new MoveGenerator(boardSize);
+        this.followUpPlacements = new PlacementList(boardSize.columns());
+        this.boardSize = boardSize;
+    }
+
+    @Override
+    public void onTetronimoSpawned(TetrisGame game, RandomGenerator random) {
+        play(game);
+    }
+
+    /**
+     * Decides on a placement for the active tetronimo and applies the inputs for it
+     */
+    public void play(TetrisGame game) {
+        decide(game).ifPresentOrElse(
+                placement -> placement.inputs().forEach(game::apply),
+                () -> game.apply(GameInput.HARD_DROP)
+        );
+    }
+
+    /**
+     * @return The best placement found for the active tetronimo, or nothing if it can't be moved anywhere that leaves
+     * the game running
+     */
+    public Optional<Placement> decide(TetrisGame game) {
+        if (!game.getBoardSize().equals(boardSize)) {
+            allocate(game.getBoardSize());
+        }
+
+        root.copyFrom(game);
+        bestScore = GAME_OVER_SCORE;
+        bestType = null;
+
+        Tetronimo active = game.getActiveTetronimo();
+        TetronimoType nextType = game.getConveyor().peek().getType();
+        Optional<Tetronimo> hold = game.getHoldTetronimo();
+
+        searchBranch(activeMoves, null, active.getType(), active.getOrientation(), active.getRow(), active.getColumn(), nextType, 0);
+
+        if (hold.isPresent()) {
+            // Releasing the hold slot discards the active tetronimo, so the next one up is still the one that follows
+            Tetronimo held = hold.get();
+            int spawnRow = root.spawnRow(held.getType());
+            if (spawnRow != Integer.MIN_VALUE) {
+                searchBranch(swappedMoves, GameInput.RELEASE_HOLD, held.getType(), held.getOrientation(), spawnRow, root.spawnColumn(), nextType, 0);
+            }
+        } else if (!active.isHold()) {
+            // Holding brings the next tetronimo in now and leaves the active one to be released afterwards
+            int spawnRow = root.spawnRow(nextType);
+            if (spawnRow != Integer.MIN_VALUE) {
+                searchBranch(swappedMoves, GameInput.HOLD, nextType, 0, spawnRow, root.spawnColumn(), active.getType(), active.getOrientation());
+            }
+        }
+
+        if (bestType == null) {
+            return Optional.empty();
+        }
+
+        List<GameInput> inputs = new ArrayList<>();
+        if (bestHoldInput != null) {
+            inputs.add(bestHoldInput);
+        }
+        inputs.addAll(bestMoves.getInputs(bestPlacement));
+
+        return Optional.of(new Placement(bestType, bestMoves.getOrientation(bestPlacement), bestMoves.getRow(bestPlacement),
+                bestMoves.getColumn(bestPlacement), List.copyOf(inputs), bestScore));
+    }
+
+    private void searchBranch(MoveGenerator moves, GameInput holdInput, TetronimoType type, int orientation, int row, int column,
+                              TetronimoType followingType, int followingOrientation) {
+        int placementCount = moves.generate(root, type, orientation, row, column);
+
+        for (int i = 0; i < placementCount; i++) {
+            afterFirst.copyFrom(root);
+            int linesCleared = afterFirst.place(type.getShape(moves.getOrientation(i)), moves.getRow(i), moves.getColumn(i));
+            double score = bestFollowUpScore(afterFirst, linesCleared, followingType, followingOrientation);
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestHoldInput = holdInput;
+                bestType = type;
+                bestMoves = moves;
+                bestPlacement = i;
+            }
+        }
+    }
+
+    private double bestFollowUpScore(SearchBoard board, int linesCleared, TetronimoType type, int orientation) {
+        int spawnRow = board.spawnRow(type);
+        if (spawnRow == Integer.MIN_VALUE) {
+            return GAME_OVER_SCORE;
+        }
+
+        enumerateDropPlacements(board, type, orientation, spawnRow, board.spawnColumn(), followUpPlacements);
+        if (followUpPlacements.size == 0) {
+            return heuristic.evaluate(board, linesCleared);
+        }
+
+        double best = GAME_OVER_SCORE;
+        for (int i = 0; i < followUpPlacements.size; i++) {
+            afterSecond.copyFrom(board);
+            int followUpLinesCleared = afterSecond.place(type.getShape(followUpPlacements.orientations[i]), followUpPlacements.rows[i], followUpPlacements.columns[i]);
+            best = Math.max(best, heuristic.evaluate(afterSecond, linesCleared + followUpLinesCleared));
+        }
+        return best;
+    }
+
+    /**
+     * Finds every placement reachable by rotating a tetronimo in place, sliding it sideways and hard dropping it.
+     * Orientations which cover the same pattern of squares as one already tried are skipped, since they can only reach
+     * the same placements
+     */
+    private static void enumerateDropPlacements(SearchBoard board, TetronimoType type, int startOrientation, int row, int startColumn, PlacementList placements) {
+        placements.size = 0;
+        int triedOrientations = 0; // bit set of orientations already enumerated
+
+        for (int rotations : ROTATION_OPTIONS) {
+            int orientation = Math.floorMod(startOrientation + rotations, 4);
+            TetronimoShape shape = type.getShape(orientation);
+            if (isPatternTried(type, shape, triedOrientations) || !canRotate(board, type, startOrientation, rotations, row, startColumn)) {
+                continue;
+            }
+            triedOrientations |= 1 << orientation;
+
+            int leftColumn = startColumn;
+            while (board.fits(shape, row, leftColumn - 1)) {
+                leftColumn--;
+            }
+            int rightColumn = startColumn;
+            while (board.fits(shape, row, rightColumn + 1)) {
+                rightColumn++;
+            }
+
+            for (int column = leftColumn; column <= rightColumn; column++) {
+                placements.add(orientation, row + board.dropDistance(shape, row, column), column);
+            }
+        }
+    }
+
+    private static boolean isPatternTried(TetronimoType type, TetronimoShape shape, int triedOrientations) {
+        for (int orientation = 0; orientation < 4; orientation++) {
+            if ((triedOrientations & (1 << orientation)) != 0 && type.getShape(orientation).hasSamePattern(shape)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return True if every orientation passed through while rotating in place fits on the board, matching the lack of
+     * wall kicks in {@link TetrisGame#rotateActiveTetronimo}
+     */
+    private static boolean canRotate(SearchBoard board, TetronimoType type, int startOrientation, int rotations, int row, int column) {
+        int step = Integer.signum(rotations);
+        for (int i = 1; i <= Math.abs(rotations); i++) {
+            if (!board.fits(type.getShape(Math.floorMod(startOrientation + step * i, 4)), row, column)) {
+                return false;
+            }
+        }
+        return board.fits(type.getShape(startOrientation), row, column);
+    }
+
+    private static final class PlacementList {
+        final int[] orientations, rows, columns;
+        int size;
+
+        PlacementList(int boardColumns) {
+            int capacity = 4 * boardColumns;
+            this.orientations = new int[capacity];
+            this.rows = new int[capacity];
+            this.columns = new int[capacity];
+        }
+
+        void add(int orientation, int row, int column) {
+            orientations[size] = orientation;
+            rows[size] = row;
+            columns[size] = column;
+            size++;
+        }
+    }
+}
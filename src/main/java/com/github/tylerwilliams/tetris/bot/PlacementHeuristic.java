@@ -0,0 +1,35 @@
+package com.github.tylerwilliams.tetris.bot;
+
+/**
+ * Scores a board reached by placing tetronimos as a weighted sum of its features. Higher scores are better, so the
+ * weights for undesirable features should be negative
+ *
+ * @param aggregateHeightWeight Weight for the sum of every column's height
+ * @param holesWeight           Weight for the number of empty squares covered by an occupied square
+ * @param bumpinessWeight       Weight for the sum of height differences between neighbouring columns
+ * @param linesClearedWeight    Weight for the number of lines cleared getting to the board
+ */
+public record PlacementHeuristic(double aggregateHeightWeight, double holesWeight, double bumpinessWeight, double linesClearedWeight) {
+
+    /**
+     * Widely used weights for these four features, originally tuned with a genetic algorithm on a standard board
+     */
+    public static final PlacementHeuristic DEFAULT = new PlacementHeuristic(-0.510066, -0.35663, -0.184483, 0.760666);
+
+    public double evaluate(SearchBoard board, int linesCleared) {
+        int aggregateHeight = 0;
+        int bumpiness = 0;
+        int previousTop = board.getColumnTop(0);
+        for (int column = 0; column < board.getColumns(); column++) {
+            int columnTop = board.getColumnTop(column);
+            aggregateHeight += board.getRows() - columnTop;
+            bumpiness += Math.abs(columnTop - previousTop);
+            previousTop = columnTop;
+        }
+
+        return aggregateHeightWeight * aggregateHeight
+                + holesWeight * board.getHoles()
+                + bumpinessWeight * bumpiness
+                + linesClearedWeight * linesCleared;
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.tylerwilliams.tetris.bot;
+
+import com.github.tylerwilliams.tetris.BoardSize;
+import com.github.tylerwilliams.tetris.TetrisGame;
+import com.github.tylerwilliams.tetris.TetronimoShape;
+import com.github.tylerwilliams.tetris.TetronimoType;
+
+/**
+ * Occupancy-only copy of a game board for searching placements on. It has no colors, events or active tetronimo, so
+ * copying one is a single array copy and trying a placement never touches the live game. The skyline and hole count
+ * are worked out lazily, once per board state, since most states are only ever evaluated or used as a base for drops.
+ */
+public final class SearchBoard {
+    private final int rows, columns;
+    private final long fullRowMask;
+    private final long[] occupancy;
+    private final int[] columnTops; // row of the highest occupied square in each column, or 'rows' if the column is empty
+    private int stackTop; // every row above this one is empty
+    private int holes;
+    private boolean analyzed;
+
+    public SearchBoard() {
+        this(BoardSize.CLASSIC);
+    }
+
+    public SearchBoard(BoardSize boardSize) {
+        this(boardSize.totalRows(), boardSize.columns());
+    }
+
+    public SearchBoard(int rows, int columns) {
+        if (columns < 1 || columns > Long.SIZE) {
+            throw new IllegalArgumentException("Board width must be between 1 and " + Long.SIZE + " columns");
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.fullRowMask = columns == Long.SIZE ? -1L : (1L << columns) - 1;
+        this.occupancy = new long[rows];
+        this.columnTops = new int[columns];
+        this.stackTop = rows;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Only the rows below the higher of the two stacks are copied, since both boards are empty above that
+     */
+    public void copyFrom(SearchBoard other) {
+        int fromRow = Math.min(stackTop, other.stackTop);
+        System.arraycopy(other.occupancy, fromRow, occupancy, fromRow, rows - fromRow);
+        stackTop = other.stackTop;
+        analyzed = false;
+    }
+
+    /**
+     * Copies the squares placed on the given game's board, ignoring its active tetronimo
+     */
+    public void copyFrom(TetrisGame game) {
+        if (game.getBoardSize().totalRows() != rows || game.getBoardSize().columns() != columns) {
+            throw new IllegalArgumentException("Game board is " + game.getBoardSize() + " but this board is sized for a different game");
+        }
+
+        stackTop = rows;
+        for (int row = rows - 1; row >= 0; row--) {
+            occupancy[row] = game.getRowOccupancy(row, 0);
+            if (occupancy[row] != 0) {
+                stackTop = row;
+            }
+        }
+        analyzed = false;
+    }
+
+    public long getRowOccupancy(int row) {
+        return occupancy[row];
+    }
+
+    public void setRowOccupancy(int row, long rowMask) {
+        occupancy[row] = rowMask & fullRowMask;
+        if (occupancy[row] != 0) {
+            stackTop = Math.min(stackTop, row);
+        }
+        analyzed = false;
+    }
+
+    /**
+     * @return True if every square of the given shape anchored at the given position is in bounds and unoccupied
+     */
+    public boolean fits(TetronimoShape shape, int row, int column) {
+        int topRow = row + shape.getTopOffset();
+        int leftColumn = column + shape.getLeftOffset();
+
+        if (topRow < 0 || row + shape.getBottomOffset() >= rows || leftColumn < 0 || column + shape.getRightOffset() >= columns) {
+            return false;
+        }
+
+        for (int maskRow = 0; maskRow < shape.getHeight(); maskRow++) {
+            if ((occupancy[topRow + maskRow] & (shape.getRowMask(maskRow) << leftColumn)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return How many rows the given shape can fall from the given position before colliding. Uses the skyline when
+     * every column of the shape is above it, otherwise probes row by row
+     */
+    public int dropDistance(TetronimoShape shape, int row, int column) {
+        analyze();
+
+        int leftColumn = column + shape.getLeftOffset();
+        int distance = Integer.MAX_VALUE;
+        for (int maskColumn = 0; maskColumn < shape.getWidth(); maskColumn++) {
+            int shapeBottom = row + shape.getColumnBottom(maskColumn);
+            int columnTop = columnTops[leftColumn + maskColumn];
+
+            if (shapeBottom >= columnTop) {
+                distance = 0;
+                while (fits(shape, row + distance + 1, column)) {
+                    distance++;
+                }
+                return distance;
+            }
+
+            distance = Math.min(distance, columnTop - shapeBottom - 1);
+        }
+        return distance;
+    }
+
+    /**
+     * Places the given shape at the given position and removes any rows it completes. The caller is responsible for
+     * ensuring that the shape {@link #fits} there
+     *
+     * @return The number of rows cleared
+     */
+    public int place(TetronimoShape shape, int row, int column) {
+        int topRow = row + shape.getTopOffset();
+        int bottomRow = row + shape.getBottomOffset();
+        int leftColumn = column + shape.getLeftOffset();
+
+        boolean anyFull = false;
+        for (int maskRow = 0; maskRow < shape.getHeight(); maskRow++) {
+            long rowMask = occupancy[topRow + maskRow] | (shape.getRowMask(maskRow) << leftColumn);
+            occupancy[topRow + maskRow] = rowMask;
+            anyFull |= rowMask == fullRowMask;
+        }
+        stackTop = Math.min(stackTop, topRow);
+        analyzed = false;
+
+        if (!anyFull) {
+            return 0;
+        }
+
+        // Only rows the shape touches can have been completed; everything above the lowest of them shifts down
+        int writeRow = bottomRow;
+        for (int readRow = bottomRow; readRow >= stackTop; readRow--) {
+            if (readRow < topRow || occupancy[readRow] != fullRowMask) {
+                occupancy[writeRow--] = occupancy[readRow];
+            }
+        }
+
+        int clearedCount = writeRow - stackTop + 1;
+        for (int openedRow = writeRow; openedRow >= stackTop; openedRow--) {
+            occupancy[openedRow] = 0L;
+        }
+        stackTop += clearedCount;
+        return clearedCount;
+    }
+
+    /**
+     * Works out where a freshly spawned tetronimo of the given type would appear, the same way
+     * {@link TetrisGame#spawn} does
+     *
+     * @return The spawn row, or {@link Integer#MIN_VALUE} if the tetronimo can't spawn and the game would end
+     */
+    public int spawnRow(TetronimoType type) {
+        TetronimoShape spawnShape = type.getShape(0);
+        int column = spawnColumn();
+
+        for (int row = type.getStartRow(); row + spawnShape.getBottomOffset() >= TetrisGame.LEADING_OVERFLOW_ROWS; row--) {
+            if (fits(spawnShape, row, column)) {
+                return row;
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    public int spawnColumn() {
+        return columns / 2;
+    }
+
+    /**
+     * @return Row of the highest occupied square in the given column, or the number of rows if the column is empty
+     */
+    public int getColumnTop(int column) {
+        analyze();
+        return columnTops[column];
+    }
+
+    /**
+     * @return Number of empty squares with an occupied square somewhere above them in the same column
+     */
+    public int getHoles() {
+        analyze();
+        return holes;
+    }
+
+    private void analyze() {
+        if (analyzed) {
+            return;
+        }
+
+        long covered = 0;
+        int holeCount = 0;
+        for (int row = stackTop; row < rows; row++) {
+            long rowMask = occupancy[row];
+            long newlyCovered = rowMask & ~covered;
+            while (newlyCovered != 0) {
+                columnTops[Long.numberOfTrailingZeros(newlyCovered)] = row;
+                newlyCovered &= newlyCovered - 1;
+            }
+
+            holeCount += Long.bitCount(covered & ~rowMask);
+            covered |= rowMask;
+        }
+
+        long uncovered = ~covered & fullRowMask;
+        while (uncovered != 0) {
+            columnTops[Long.numberOfTrailingZeros(uncovered)] = rows;
+            uncovered &= uncovered - 1;
+        }
+
+        holes = holeCount;
+        analyzed = true;
+    }
+}
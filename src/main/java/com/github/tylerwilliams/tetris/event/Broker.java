@@ -1,30 +1,164 @@
 package com.github.tylerwilliams.tetris.event;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.EnumMap;
-import java.util.Map;
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+import java.awt.EventQueue;
 import java.util.function.Consumer;
 
+/**
+ * Publishes {@link TetrisEvent}s to subscribed listeners. Each subscriber picks a {@link DeliveryPolicy}: run inline on
+ * the publishing thread, on the Swing event dispatch thread, or on a background consumer thread fed from a ring buffer.
+ * Subscribers that don't pick one run inline.
+ * <p>
+ * Events must be published from one thread at a time, because the background ring buffer and the queue that hands
+ * events to the EDT each have a single producer. A game publishes from more than one thread: the game loop while
+ * ticking, and the EDT when it resets the game or plays a replay. Those publishes stay apart only because each caller
+ * holds the game's monitor while it drives the game. That monitor also makes each publisher's writes to the ring buffer
+ * visible to the next. With assertions enabled, the ring buffer checks that no two publishes overlap.
+ */
 public class Broker {
-    private final Map<TetrisEvent, Collection<Consumer<Object>>> subscribers;
+    public static final int DEFAULT_RING_BUFFER_CAPACITY = 1024;
+    private static final int EDT_QUEUE_CAPACITY = 1024;
+    private static final Counter[] EVENTS_PUBLISHED = new Counter[TetrisEvent.values().length];
 
-    public Broker() {
-        subscribers = new EnumMap<>(TetrisEvent.class);
+    static {
         for (var event : TetrisEvent.values()) {
-            subscribers.put(event, new ArrayList<>());
+            EVENTS_PUBLISHED[event.ordinal()] = Metrics.counter("eventsPublished." + event);
         }
     }
 
+    private final Subscribers inlineSubscribers = new Subscribers();
+    private final Subscribers edtSubscribers = new Subscribers();
+    private final EventDispatchQueue edtQueue = new EventDispatchQueue(EDT_QUEUE_CAPACITY, edtSubscribers);
+    private EventRingBuffer ringBuffer; // set while background dispatch is running
+
+    /**
+     * Publishes an event without a payload. Like every publish, it must not run at the same time as another publish on
+     * this broker. Games guarantee that by publishing only while their monitor is held
+     */
     public void publish(TetrisEvent event) {
-        publish(event, null);
+        dispatch(event, 0, null);
     }
 
+    /**
+     * Publishes an event to every listener. Events with an int payload must be given an {@link Integer}, which is
+     * unboxed for {@link IntEventListener}s; {@link #publish(TetrisEvent, int)} avoids the boxing altogether
+     */
     public void publish(TetrisEvent event, Object eventData) {
-        subscribers.get(event).forEach(listener -> listener.accept(eventData));
+        if (!event.hasIntPayload()) {
+            dispatch(event, 0, eventData);
+        } else if (eventData instanceof Integer value) {
+            dispatch(event, value, eventData);
+        } else {
+            throw new IllegalArgumentException(event + " must be published with an int payload");
+        }
+    }
+
+    /**
+     * Publishes an event with an int payload. Nothing is allocated unless a plain listener is subscribed to the event
+     */
+    public void publish(TetrisEvent event, int value) {
+        dispatch(event, value, null);
+    }
+
+    /**
+     * Publishes an event with an int payload for {@link IntEventListener}s and a richer payload for plain listeners
+     */
+    public void publish(TetrisEvent event, int value, Object eventData) {
+        if (!event.hasIntPayload()) {
+            throw new IllegalArgumentException(event + " doesn't have an int payload");
+        }
+        dispatch(event, value, eventData);
+    }
+
+    private void dispatch(TetrisEvent event, int value, Object eventData) {
+        EVENTS_PUBLISHED[event.ordinal()].increment();
+        inlineSubscribers.deliver(event, value, eventData);
+
+        if (!edtSubscribers.isEmpty(event)) {
+            if (EventQueue.isDispatchThread()) {
+                edtSubscribers.deliver(event, value, eventData);
+            } else {
+                edtQueue.publish(event, value, eventData);
+            }
+        }
+
+        EventRingBuffer ringBuffer = this.ringBuffer;
+        if (ringBuffer != null && ringBuffer.hasSubscribers(event)) {
+            ringBuffer.publish(event, value, eventData);
+        }
     }
 
     public void subscribe(TetrisEvent event, Consumer<Object> listener) {
-        subscribers.get(event).add(listener);
+        subscribe(event, DeliveryPolicy.INLINE, listener);
+    }
+
+    public void subscribe(TetrisEvent event, DeliveryPolicy policy, Consumer<Object> listener) {
+        switch (policy) {
+            case INLINE -> inlineSubscribers.add(event, listener);
+            case EVENT_DISPATCH_THREAD -> edtSubscribers.add(event, listener);
+            case BACKGROUND -> requireRingBuffer().subscribe(event, listener);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException If the event doesn't have an int payload
+     */
+    public void subscribeInt(TetrisEvent event, IntEventListener listener) {
+        subscribeInt(event, DeliveryPolicy.INLINE, listener);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the event doesn't have an int payload
+     */
+    public void subscribeInt(TetrisEvent event, DeliveryPolicy policy, IntEventListener listener) {
+        switch (policy) {
+            case INLINE -> inlineSubscribers.addInt(event, listener);
+            case EVENT_DISPATCH_THREAD -> edtSubscribers.addInt(event, listener);
+            case BACKGROUND -> requireRingBuffer().subscribeInt(event, listener);
+        }
+    }
+
+    private EventRingBuffer requireRingBuffer() {
+        if (ringBuffer == null) {
+            throw new IllegalStateException("Background dispatch must be started before subscribing to it");
+        }
+        return ringBuffer;
+    }
+
+    /**
+     * Starts the consumer threads that run {@link DeliveryPolicy#BACKGROUND} listeners. The threads are daemons, so
+     * they don't keep the application alive on their own
+     *
+     * @param capacity        Number of preallocated event slots, which must be a power of two. Once the slowest
+     *                        consumer falls this far behind, further events for background listeners are dropped
+     * @param consumerThreads Number of threads background listeners are spread across
+     * @param waitStrategy    How idle consumer threads wait for the next event
+     */
+    public void startBackgroundDispatch(int capacity, int consumerThreads, WaitStrategy waitStrategy) {
+        if (ringBuffer != null) {
+            throw new IllegalStateException("Background dispatch is already running");
+        }
+        ringBuffer = new EventRingBuffer(capacity, consumerThreads, waitStrategy);
+    }
+
+    /**
+     * Stops the background consumer threads and unsubscribes every background listener. Events already in the ring
+     * buffer may go undelivered
+     */
+    public void stopBackgroundDispatch() {
+        if (ringBuffer != null) {
+            ringBuffer.stop();
+            ringBuffer = null;
+        }
+    }
+
+    /**
+     * @return Counters for background dispatch, or all zeroes if it isn't running
+     */
+    public DispatchStats getBackgroundDispatchStats() {
+        EventRingBuffer ringBuffer = this.ringBuffer;
+        return ringBuffer == null ? new DispatchStats(0, 0, 0, 0, 0, 0) : ringBuffer.stats();
     }
 }
@@ -0,0 +1,26 @@
+package com.github.tylerwilliams.tetris.event;
+
+/**
+ * Where and when a {@link Broker} runs a subscriber's listener
+ */
+public enum DeliveryPolicy {
+    /**
+     * Runs on the publishing thread before {@link Broker#publish} returns. Listeners that must see the game exactly as
+     * it was when the event was published, such as the replay recorder, use this
+     */
+    INLINE,
+
+    /**
+     * Runs on the Swing event dispatch thread. Events published on the EDT are delivered immediately, just like
+     * {@link #INLINE}. Events published from any other thread are copied into a preallocated queue that the EDT
+     * drains in order
+     */
+    EVENT_DISPATCH_THREAD,
+
+    /**
+     * Runs on one of the broker's background consumer threads, so a slow listener such as one decoding audio never
+     * holds up the game tick that published the event. Requires {@link Broker#startBackgroundDispatch} to have been
+     * called first. Listeners on the same consumer thread see events in the order they were published
+     */
+    BACKGROUND
+}
@@ -0,0 +1,15 @@
+package com.github.tylerwilliams.tetris.event;
+
+/**
+ * Counters for a broker's background dispatch, taken at one moment with {@link Broker#getBackgroundDispatchStats()}
+ *
+ * @param published        Events accepted into the ring buffer
+ * @param dropped          Events discarded because the ring buffer was full
+ * @param delivered        Events taken off the ring buffer, counted once per consumer thread
+ * @param queueDepth       Events published but not yet taken off the ring buffer by the slowest consumer
+ * @param meanLatencyNanos Average time from an event being published to a consumer starting to deliver it
+ * @param maxLatencyNanos  Longest time from an event being published to a consumer starting to deliver it
+ */
+public record DispatchStats(long published, long dropped, long delivered, int queueDepth, long meanLatencyNanos,
+                            long maxLatencyNanos) {
+}
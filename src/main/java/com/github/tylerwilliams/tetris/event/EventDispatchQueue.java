@@ -0,0 +1,106 @@
+package com.github.tylerwilliams.tetris.event;
+
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+import java.awt.EventQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands events published off the EDT over to {@link DeliveryPolicy#EVENT_DISPATCH_THREAD} listeners. Events are copied
+ * into preallocated slots and one resident runnable drains them all on the EDT. The runnable is only posted to the EDT
+ * when it isn't already waiting there, so the only allocation is Swing's event for each wakeup, however many events
+ * that wakeup then delivers.
+ * <p>
+ * Like {@link EventRingBuffer}, it has a single publishing thread at a time. If the EDT falls a full queue behind, the
+ * events that don't fit are posted to the EDT one at a time, in order, until it catches up.
+ */
+final class EventDispatchQueue {
+    private static final Counter EVENTS_OVERFLOWED = Metrics.counter("edtEventsOverflowed");
+
+    private final Subscribers subscribers;
+    private final TetrisEvent[] events;
+    private final int[] eventValues;
+    private final Object[] eventData;
+    private final int mask;
+
+    private final AtomicLong cursor = new AtomicLong(-1); // sequence of the most recently published event
+    private final AtomicLong consumed = new AtomicLong(-1); // sequence of the last event the EDT has read
+    private long nextSequence; // only touched by the publishing thread
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicInteger pendingOverflow = new AtomicInteger(); // overflowed events the EDT hasn't delivered yet
+    private final Runnable drain = this::drain;
+
+    EventDispatchQueue(int capacity, Subscribers subscribers) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Queue capacity must be a power of two, got " + capacity);
+        }
+
+        this.subscribers = subscribers;
+        this.events = new TetrisEvent[capacity];
+        this.eventValues = new int[capacity];
+        this.eventData = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Must only be called off the EDT, and only from one thread at a time
+     */
+    void publish(TetrisEvent event, int value, Object data) {
+        long sequence = nextSequence;
+
+        // Once an event has overflowed, later ones follow it until it's delivered, so they can't overtake it
+        if (pendingOverflow.get() > 0 || sequence - events.length > consumed.get()) {
+            EVENTS_OVERFLOWED.increment();
+            pendingOverflow.incrementAndGet();
+            EventQueue.invokeLater(() -> {
+                drain();
+                subscribers.deliver(event, value, data);
+                pendingOverflow.decrementAndGet();
+            });
+            return;
+        }
+
+        int slot = (int) sequence & mask;
+        events[slot] = event;
+        eventValues[slot] = value;
+        eventData[slot] = data;
+        nextSequence = sequence + 1;
+        cursor.set(sequence);
+
+        if (!drainScheduled.get() && drainScheduled.compareAndSet(false, true)) {
+            EventQueue.invokeLater(drain);
+        }
+    }
+
+    /**
+     * Delivers every event published so far. Runs on the EDT
+     */
+    private void drain() {
+        // Cleared first, so an event published after the cursor is read below schedules another drain
+        drainScheduled.set(false);
+
+        long available = cursor.get();
+        try {
+            for (long next = consumed.get() + 1; next <= available; next++) {
+                int slot = (int) next & mask;
+                TetrisEvent event = events[slot];
+                int value = eventValues[slot];
+                Object data = eventData[slot];
+                eventData[slot] = null;
+
+                // The slot can be reused as soon as it's read, so release it before running listeners
+                consumed.set(next);
+                subscribers.deliver(event, value, data);
+            }
+        } finally {
+            // A listener that throws leaves the rest of the events for another drain, rather than waiting for the next
+            // publish to schedule one
+            if (consumed.get() < available && drainScheduled.compareAndSet(false, true)) {
+                EventQueue.invokeLater(drain);
+            }
+        }
+    }
+}
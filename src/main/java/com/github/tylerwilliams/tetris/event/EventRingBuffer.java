@@ -0,0 +1,272 @@
+package com.github.tylerwilliams.tetris.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Preallocated ring of event slots written by a single publishing thread and read by one or more consumer threads.
+ * Every consumer reads every event but only delivers it to the listeners assigned to that consumer.
+ * <p>
+ * Publishing never waits for consumers. If the slowest consumer has fallen a full ring behind, the event is dropped and
+ * counted instead, so a stuck listener can never stall the game.
+ */
+final class EventRingBuffer {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long STOP_TIMEOUT_MILLIS = 1000;
+
+    private final TetrisEvent[] events;
+    private final int[] eventValues;
+    private final Object[] eventData;
+    private final long[] publishNanos;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final EventConsumer[] consumers;
+    private final boolean[] hasSubscribers = new boolean[TetrisEvent.values().length];
+
+    private final AtomicLong cursor = new AtomicLong(-1); // sequence of the most recently published event
+    private long nextSequence; // only touched by the publishing thread
+    private long cachedMinimumConsumed = -1;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger publishing = new AtomicInteger(); // publishes in progress, only counted with assertions
+    private volatile boolean running = true;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final AtomicInteger blockedConsumers = new AtomicInteger();
+
+    private int nextConsumer; // consumer the next subscribed listener is assigned to
+
+    EventRingBuffer(int capacity, int consumerThreads, WaitStrategy waitStrategy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two, got " + capacity);
+        }
+        if (consumerThreads < 1) {
+            throw new IllegalArgumentException("Background dispatch needs at least one consumer thread");
+        }
+
+        this.events = new TetrisEvent[capacity];
+        this.eventValues = new int[capacity];
+        this.eventData = new Object[capacity];
+        this.publishNanos = new long[capacity];
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+
+        this.consumers = new EventConsumer[consumerThreads];
+        for (int i = 0; i < consumerThreads; i++) {
+            consumers[i] = new EventConsumer();
+            Thread thread = new Thread(consumers[i], "tetris-event-consumer-" + i);
+            thread.setDaemon(true);
+            consumers[i].thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Assigns the listener to a consumer thread, spreading listeners evenly across them
+     */
+    synchronized void subscribe(TetrisEvent event, Consumer<Object> listener) {
+        consumers[nextConsumer].subscribers.add(event, listener);
+        nextConsumer = (nextConsumer + 1) % consumers.length;
+        hasSubscribers[event.ordinal()] = true;
+    }
+
+    synchronized void subscribeInt(TetrisEvent event, IntEventListener listener) {
+        consumers[nextConsumer].subscribers.addInt(event, listener);
+        nextConsumer = (nextConsumer + 1) % consumers.length;
+        hasSubscribers[event.ordinal()] = true;
+    }
+
+    boolean hasSubscribers(TetrisEvent event) {
+        return hasSubscribers[event.ordinal()];
+    }
+
+    /**
+     * Must only ever be called from one thread at a time. It can be called from different threads over time, provided
+     * something like a shared lock orders each call after the last
+     *
+     * @return False if the ring buffer was full and the event was dropped
+     */
+    boolean publish(TetrisEvent event, int value, Object data) {
+        assert publishing.getAndIncrement() == 0 : "Events published to a ring buffer from two threads at once";
+        try {
+            return append(event, value, data);
+        } finally {
+            assert publishing.decrementAndGet() == 0;
+        }
+    }
+
+    private boolean append(TetrisEvent event, int value, Object data) {
+        long sequence = nextSequence;
+        long wrapPoint = sequence - events.length;
+        if (wrapPoint > cachedMinimumConsumed) {
+            cachedMinimumConsumed = minimumConsumed();
+            if (wrapPoint > cachedMinimumConsumed) {
+                dropped.increment();
+                return false;
+            }
+        }
+
+        int slot = (int) sequence & mask;
+        events[slot] = event;
+        eventValues[slot] = value;
+        eventData[slot] = data;
+        publishNanos[slot] = System.nanoTime();
+        nextSequence = sequence + 1;
+
+        // A volatile write, so it's ordered before the read of blockedConsumers below. A consumer about to block either
+        // sees this sequence or is counted there
+        cursor.set(sequence);
+
+        if (waitStrategy == WaitStrategy.BLOCKING && blockedConsumers.get() > 0) {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    void stop() {
+        running = false;
+
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        for (EventConsumer consumer : consumers) {
+            try {
+                consumer.thread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    DispatchStats stats() {
+        long delivered = 0;
+        long totalLatency = 0;
+        long maxLatency = 0;
+        for (EventConsumer consumer : consumers) {
+            delivered += consumer.delivered.sum();
+            totalLatency += consumer.totalLatencyNanos.sum();
+            maxLatency = Math.max(maxLatency, consumer.maxLatencyNanos.get());
+        }
+
+        long published = cursor.get() + 1;
+        int queueDepth = (int) (published - 1 - minimumConsumed());
+        long meanLatency = delivered == 0 ? 0 : totalLatency / delivered;
+        return new DispatchStats(published, dropped.sum(), delivered, queueDepth, meanLatency, maxLatency);
+    }
+
+    private long minimumConsumed() {
+        long minimum = Long.MAX_VALUE;
+        for (EventConsumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.consumed.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * @return The latest published sequence once it reaches the given one, or a lower value if dispatch was stopped
+     */
+    private long waitFor(long sequence) {
+        long available;
+        int tries = 0;
+        while ((available = cursor.get()) < sequence && running) {
+            tries++;
+            switch (waitStrategy) {
+                case BUSY_SPIN -> Thread.onSpinWait();
+                case YIELDING -> {
+                    if (tries < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+                case SLEEPING -> {
+                    if (tries < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(SLEEP_NANOS);
+                    }
+                }
+                case BLOCKING -> block(sequence);
+            }
+        }
+        return available;
+    }
+
+    private void block(long sequence) {
+        lock.lock();
+        blockedConsumers.incrementAndGet();
+        try {
+            while (cursor.get() < sequence && running) {
+                published.awaitUninterruptibly();
+            }
+        } finally {
+            blockedConsumers.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    private class EventConsumer implements Runnable {
+        private final Subscribers subscribers = new Subscribers();
+        private final AtomicLong consumed = new AtomicLong(-1); // sequence of the last event this consumer is done with
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private Thread thread;
+
+        @Override
+        public void run() {
+            long next = 0;
+            while (running) {
+                long available = waitFor(next);
+                for (; next <= available; next++) {
+                    int slot = (int) next & mask;
+                    TetrisEvent event = events[slot];
+                    int value = eventValues[slot];
+                    Object data = eventData[slot];
+                    long latency = System.nanoTime() - publishNanos[slot];
+
+                    // The slot can be reused as soon as it's read, so release it before running listeners
+                    consumed.set(next);
+
+                    delivered.increment();
+                    totalLatencyNanos.add(latency);
+                    if (latency > maxLatencyNanos.get()) {
+                        maxLatencyNanos.set(latency);
+                    }
+
+                    deliver(event, value, data);
+                }
+            }
+        }
+
+        private void deliver(TetrisEvent event, int value, Object data) {
+            try {
+                subscribers.deliver(event, value, data);
+            } catch (RuntimeException e) {
+                // A broken listener shouldn't stop this thread from delivering any later events
+                System.err.println("Background listener for " + event + " failed");
+                e.printStackTrace();
+            }
+        }
+    }
+}
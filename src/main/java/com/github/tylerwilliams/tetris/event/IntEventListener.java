@@ -0,0 +1,10 @@
+package com.github.tylerwilliams.tetris.event;
+
+/**
+ * Listener for events whose payload is a single int, such as {@link TetrisEvent#SCORE_CHANGED}. The value is passed
+ * unboxed, so publishing to these listeners never allocates
+ */
+@FunctionalInterface
+public interface IntEventListener {
+    void onEvent(int value);
+}
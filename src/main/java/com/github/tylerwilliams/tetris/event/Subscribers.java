@@ -0,0 +1,66 @@
+package com.github.tylerwilliams.tetris.event;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Listeners for every event, kept in arrays indexed by event ordinal. Subscribing replaces an event's array with a
+ * longer copy, so delivering never allocates or locks, and can safely run on one thread while another subscribes. Int
+ * listeners for an event run before plain ones.
+ */
+final class Subscribers {
+    private static final int EVENT_COUNT = TetrisEvent.values().length;
+
+    private volatile Consumer<Object>[][] listeners = newListenerArrays();
+    private volatile IntEventListener[][] intListeners = new IntEventListener[EVENT_COUNT][0];
+
+    synchronized void add(TetrisEvent event, Consumer<Object> listener) {
+        Consumer<Object>[][] updated = listeners.clone();
+        updated[event.ordinal()] = append(updated[event.ordinal()], listener);
+        listeners = updated;
+    }
+
+    synchronized void addInt(TetrisEvent event, IntEventListener listener) {
+        if (!event.hasIntPayload()) {
+            throw new IllegalArgumentException(event + " doesn't have an int payload");
+        }
+
+        IntEventListener[][] updated = intListeners.clone();
+        updated[event.ordinal()] = append(updated[event.ordinal()], listener);
+        intListeners = updated;
+    }
+
+    boolean isEmpty(TetrisEvent event) {
+        return listeners[event.ordinal()].length == 0 && intListeners[event.ordinal()].length == 0;
+    }
+
+    /**
+     * @param value   Int payload, ignored for events that don't have one
+     * @param payload Payload for plain listeners. For events with an int payload this may be null, in which case they
+     *                receive the boxed value
+     */
+    void deliver(TetrisEvent event, int value, Object payload) {
+        for (IntEventListener listener : intListeners[event.ordinal()]) {
+            listener.onEvent(value);
+        }
+
+        Consumer<Object>[] eventListeners = listeners[event.ordinal()];
+        if (eventListeners.length > 0) {
+            Object data = payload == null && event.hasIntPayload() ? Integer.valueOf(value) : payload;
+            for (Consumer<Object> listener : eventListeners) {
+                listener.accept(data);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Consumer<Object>[][] newListenerArrays() {
+        return (Consumer<Object>[][]) new Consumer<?>[EVENT_COUNT][0];
+    }
+
+    private static <T> T[] append(T[] array, T element) {
+        T[] appended = Arrays.copyOf(array, array.length + 1);
+        appended[array.length] = element;
+        return appended;
+    }
+}
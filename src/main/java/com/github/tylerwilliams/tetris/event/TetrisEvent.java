@@ -1,10 +1,54 @@
 package com.github.tylerwilliams.tetris.event;
 
+/**
+ * Events published by a game. Events with an int payload can be listened to with an {@link IntEventListener}; plain
+ * listeners receive that int boxed, unless noted otherwise below
+ */
 public enum TetrisEvent {
-    SPAWN_FAIL,
-    TIME_ATTACK_FAIL,
-    GAME_WON,
-    LINES_CLEARED,
-    LEVEL_CHANGED,
-    SCORE_CHANGED
+    /**
+     * Payload is the tetronimo that couldn't be spawned
+     */
+    SPAWN_FAIL(false),
+    TIME_ATTACK_FAIL(false),
+    GAME_WON(false),
+
+    /**
+     * Int payload is the number of lines cleared. Plain listeners receive the full {@code LineClear} instead, which also
+     * has the indexes of the cleared rows and whether the board was left empty
+     */
+    LINES_CLEARED(true),
+
+    /**
+     * Int payload is the new level
+     */
+    LEVEL_CHANGED(true),
+
+    /**
+     * Int payload is the new score
+     */
+    SCORE_CHANGED(true),
+
+    /**
+     * Int payload is the game time in whole seconds
+     */
+    GAME_TIME_CHANGED(true),
+    GRAVITY_STEP(false),
+
+    /**
+     * Payload is the {@code GameInput} that was applied
+     */
+    INPUT_APPLIED(false);
+
+    private final boolean intPayload;
+
+    TetrisEvent(boolean intPayload) {
+        this.intPayload = intPayload;
+    }
+
+    /**
+     * @return Whether this event carries an int that {@link IntEventListener}s can subscribe to
+     */
+    public boolean hasIntPayload() {
+        return intPayload;
+    }
 }
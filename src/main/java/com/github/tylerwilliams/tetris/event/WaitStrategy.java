@@ -0,0 +1,28 @@
+package com.github.tylerwilliams.tetris.event;
+
+/**
+ * How a background consumer thread waits for the next event to be published. Strategies further down the list react
+ * more slowly to a new event but burn less CPU while the game is idle
+ */
+public enum WaitStrategy {
+    /**
+     * Spins on the CPU without ever giving it up. Lowest latency, but keeps a core busy for as long as dispatch runs
+     */
+    BUSY_SPIN,
+
+    /**
+     * Spins briefly, then yields to other threads between checks
+     */
+    YIELDING,
+
+    /**
+     * Spins and yields briefly, then sleeps for short intervals between checks
+     */
+    SLEEPING,
+
+    /**
+     * Parks until the publisher signals a new event. Uses no CPU while idle, at the cost of a lock round trip whenever
+     * a consumer has to be woken up
+     */
+    BLOCKING
+}
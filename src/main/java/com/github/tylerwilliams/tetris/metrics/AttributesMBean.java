@@ -0,0 +1,64 @@
+package com.github.tylerwilliams.tetris.metrics;
+
+import javax.management.*;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-only MBean whose attributes are whatever names and numbers the supplier returns when asked, so metrics
+ * registered after the MBean still show up
+ */
+final class AttributesMBean implements DynamicMBean {
+    private final String description;
+    private final Supplier<Map<String, ? extends Number>> attributes;
+
+    AttributesMBean(String description, Supplier<Map<String, ? extends Number>> attributes) {
+        this.description = description;
+        this.attributes = attributes;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = attributes.get().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        Map<String, ? extends Number> values = attributes.get();
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            if (values.containsKey(name)) {
+                list.add(new Attribute(name, values.get(name)));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        MBeanAttributeInfo[] attributeInfos = attributes.get().entrySet().stream()
+                .map(entry -> new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(), entry.getKey(),
+                        true, false, false))
+                .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), description, attributeInfos, null, null, null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.tylerwilliams.tetris.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations in fixed power-of-two buckets: bucket {@code n} holds durations of less than 2^n
+ * nanoseconds that didn't fit in bucket {@code n - 1}. Percentiles are reported as the upper bound of the bucket they
+ * fall in, so they're accurate to within a factor of two, which is plenty for spotting a slow tick or paint.
+ * <p>
+ * Recording touches one striped bucket counter plus the count, sum and max, so it never locks or allocates.
+ */
+public final class Histogram {
+    private static final int BUCKETS = Long.SIZE; // durations are never negative, so never need the sign bit
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long duration = Math.max(nanos, 0);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(duration)].increment();
+        count.increment();
+        totalNanos.add(duration);
+        maxNanos.accumulate(duration);
+    }
+
+    /**
+     * Records the time elapsed since the given {@link System#nanoTime()} reading
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMicros() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : totalNanos.sum() / (samples * 1000.0);
+    }
+
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return Upper bound, in microseconds, of the bucket holding the given percentile (capped at the max), or 0 if
+     * nothing was recorded
+     */
+    public double getPercentileMicros(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long samples = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            samples += counts[i];
+        }
+        if (samples == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(samples * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(Math.scalb(1.0, i), maxNanos.get()) / 1000;
+            }
+        }
+        return getMaxMicros();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.tylerwilliams.tetris.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of named counters, gauges and latency histograms. Code that records a metric looks it up once,
+ * typically into a static field, and records into it directly from then on. Everything can be read in-process through
+ * the accessors here, or from JConsole or VisualVM once {@link #registerMBeans()} has been called.
+ * <p>
+ * Under JMX, counters and gauges are attributes of one MBean each, and every histogram gets an MBean of its own with
+ * its count, mean, max and percentiles in microseconds.
+ */
+public final class Metrics {
+    static final String DOMAIN = "com.github.tylerwilliams.tetris";
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+    private static MBeanServer mBeanServer; // set once MBeans have been registered
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public static synchronized Histogram histogram(String name) {
+        Histogram histogram = HISTOGRAMS.get(name);
+        if (histogram == null) {
+            histogram = new Histogram();
+            HISTOGRAMS.put(name, histogram);
+            if (mBeanServer != null) {
+                register(name, histogram);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Registers a gauge, replacing any existing gauge with the same name. Gauges are read from whichever thread asks
+     * for them, so the supplier should only read fields and never block
+     */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    public static Map<String, Long> getCounters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.get()));
+        return values;
+    }
+
+    public static Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        GAUGES.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    public static Map<String, Histogram> getHistograms() {
+        return Collections.unmodifiableMap(HISTOGRAMS);
+    }
+
+    /**
+     * Exposes every metric, including ones created later, on the platform MBean server. Calling this again does nothing
+     */
+    public static synchronized void registerMBeans() throws JMException {
+        if (mBeanServer != null) {
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(new AttributesMBean("Counters", Metrics::getCounters), new ObjectName(DOMAIN + ":type=Counters"));
+        server.registerMBean(new AttributesMBean("Gauges", Metrics::getGauges), new ObjectName(DOMAIN + ":type=Gauges"));
+        mBeanServer = server;
+        HISTOGRAMS.forEach(Metrics::register);
+    }
+
+    private static void register(String name, Histogram histogram) {
+        try {
+            mBeanServer.registerMBean(new AttributesMBean("Latency in microseconds", () -> {
+                Map<String, Number> values = new LinkedHashMap<>();
+                values.put("Count", histogram.getCount());
+                values.put("MeanMicros", histogram.getMeanMicros());
+                values.put("MaxMicros", histogram.getMaxMicros());
+                values.put("P50Micros", histogram.getPercentileMicros(50));
+                values.put("P90Micros", histogram.getPercentileMicros(90));
+                values.put("P99Micros", histogram.getPercentileMicros(99));
+                return values;
+            }), new ObjectName(DOMAIN + ":type=Histogram,name=" + name));
+        } catch (JMException e) {
+            System.err.println("Could not register histogram " + name);
+            e.printStackTrace();
+        }
+    }
+}
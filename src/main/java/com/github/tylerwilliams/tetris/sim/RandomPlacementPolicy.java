@@ -0,0 +1,32 @@
+package com.github.tylerwilliams.tetris.sim;
+
+import com.github.tylerwilliams.tetris.GameInput;
+import com.github.tylerwilliams.tetris.TetrisGame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Scripted policy which rotates each tetronimo a random number of times, slides it towards a random column and hard
+ * drops it. Plays badly, but cheaply, which makes it a useful baseline for how forgiving a difficulty is
+ */
+public class RandomPlacementPolicy implements SimulationPolicy {
+
+    @Override
+    public void onTetronimoSpawned(TetrisGame game, RandomGenerator random) {
+        int rotations = random.nextInt(4);
+        for (int i = 0; i < rotations; i++) {
+            game.apply(GameInput.ROTATE_CLOCKWISE);
+        }
+
+        int halfWidth = game.getBoardSize().columns() / 2;
+        int shift = random.nextInt(-halfWidth, halfWidth + 1);
+        GameInput move = shift < 0 ? GameInput.MOVE_LEFT : GameInput.MOVE_RIGHT;
+        for (int i = 0; i < Math.abs(shift); i++) {
+            if (!game.apply(move)) {
+                break;
+            }
+        }
+
+        game.apply(GameInput.HARD_DROP);
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.tylerwilliams.tetris.sim;
+
+import com.github.tylerwilliams.tetris.Difficulty;
+import com.github.tylerwilliams.tetris.GameMode;
+
+/**
+ * Game settings a batch of simulated games is played under
+ */
+public record Scenario(Difficulty difficulty, GameMode gameMode) {
+
+    @Override
+    public String toString() {
+        return difficulty + " / " + gameMode;
+    }
+}
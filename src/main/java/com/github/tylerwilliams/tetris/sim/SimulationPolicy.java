@@ -0,0 +1,19 @@
+package com.github.tylerwilliams.tetris.sim;
+
+import com.github.tylerwilliams.tetris.TetrisGame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Decides how a simulated player places each tetronimo. Policies act on the game only through
+ * {@link TetrisGame#apply}, just like a human player, so a policy can be swapped in wherever inputs are expected.
+ */
+@FunctionalInterface
+public interface SimulationPolicy {
+    /**
+     * Called once each time a new tetronimo becomes active, before any gravity is applied to it
+     *
+     * @param random Random source dedicated to the game being played, so policies never share random state
+     */
+    void onTetronimoSpawned(TetrisGame game, RandomGenerator random);
+}
@@ -0,0 +1,124 @@
+package com.github.tylerwilliams.tetris.sim;
+
+import com.github.tylerwilliams.tetris.Difficulty;
+import com.github.tylerwilliams.tetris.GameMode;
+import com.github.tylerwilliams.tetris.GameRandom;
+import com.github.tylerwilliams.tetris.TetrisGame;
+import com.github.tylerwilliams.tetris.Tetronimo;
+import com.github.tylerwilliams.tetris.bot.PlacementBot;
+import com.github.tylerwilliams.tetris.task.Tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Plays batches of headless games as fast as possible on the {@link Tasks} compute pool, which leaves a core free for
+ * the EDT and the game loop. A batch is split into a few chunks per compute thread. Every game gets its own
+ * {@link TetrisGame}, policy and random source, and statistics are collected per chunk and merged at the end, so chunks
+ * share no mutable state and throughput scales with the number of cores.
+ * <p>
+ * Each game's seed is derived from the root seed and the game's index, so a batch is reproducible regardless of how it
+ * was split into chunks, and every scenario in a run is played on the same seeds.
+ */
+public class SimulationRunner {
+    private static final long DEFAULT_MAX_GAME_MILLIS = 60 * 60 * 1000; // one hour of game time
+    private static final int CHUNKS_PER_THREAD = 4; // so a thread that draws long games doesn't hold up the batch
+
+    private final Supplier<? extends SimulationPolicy> policyFactory;
+    private final long rootSeed;
+    private final long maxGameMillis;
+
+    /**
+     * @param policyFactory Creates the policy for each game. Policies may keep per-game state, since each one is only
+     *                      ever used by a single chunk
+     * @param maxGameMillis Game time after which a game which hasn't ended is stopped and counted as unfinished
+     */
+    public SimulationRunner(Supplier<? extends SimulationPolicy> policyFactory, long rootSeed, long maxGameMillis) {
+        this.policyFactory = policyFactory;
+        this.rootSeed = rootSeed;
+        this.maxGameMillis = maxGameMillis;
+    }
+
+    public SimulationStats run(Scenario scenario, long games) {
+        long chunks = Math.min(games, (long) Tasks.getComputeThreads() * CHUNKS_PER_THREAD);
+        List<CompletableFuture<SimulationStats>> results = new ArrayList<>();
+        for (long chunk = 0; chunk < chunks; chunk++) {
+            long firstGame = games * chunk / chunks;
+            long endGame = games * (chunk + 1) / chunks;
+            results.add(Tasks.callCompute(() -> play(scenario, firstGame, endGame)));
+        }
+
+        SimulationStats stats = new SimulationStats();
+        for (CompletableFuture<SimulationStats> result : results) {
+            stats.combine(result.join());
+        }
+        return stats;
+    }
+
+    /**
+     * @return Statistics for the games with indexes from {@code firstGame}, inclusive, to {@code endGame}, exclusive
+     */
+    private SimulationStats play(Scenario scenario, long firstGame, long endGame) {
+        SimulationStats stats = new SimulationStats();
+        for (long index = firstGame; index < endGame; index++) {
+            stats.record(play(scenario, index));
+        }
+        return stats;
+    }
+
+    private TetrisGame play(Scenario scenario, long index) {
+        GameRandom random = new GameRandom(GameRandom.seedAt(rootSeed, index));
+        TetrisGame game = new TetrisGame(random.nextLong());
+        game.setDifficulty(scenario.difficulty());
+        game.setGameMode(scenario.gameMode());
+        game.setGhostSquaresEnabled(false);
+        game.reset();
+
+        SimulationPolicy policy = policyFactory.get();
+        Tetronimo lastActive = null;
+        while (game.isRunning() && game.getElapsedMillis() < maxGameMillis) {
+            Tetronimo active = game.getActiveTetronimo();
+            if (active != lastActive) {
+                lastActive = active;
+                policy.onTetronimoSpawned(game, random);
+            }
+
+            game.step();
+        }
+
+        return game;
+    }
+
+    /**
+     * Runs a batch for every combination of difficulty and game mode and prints the statistics for each.
+     * Arguments are the number of games per scenario and, optionally, the root seed and the policy to play with
+     * ({@code random} or {@code bot})
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        String policy = args.length > 2 ? args[2] : "random";
+
+        Supplier<? extends SimulationPolicy> policyFactory = switch (policy) {
+            case "random" -> RandomPlacementPolicy::new;
+            case "bot" -> PlacementBot::new;
+            default -> throw new IllegalArgumentException("Unknown policy '" + policy + "', expected 'random' or 'bot'");
+        };
+
+        SimulationRunner runner = new SimulationRunner(policyFactory, seed, DEFAULT_MAX_GAME_MILLIS);
+
+        for (Difficulty difficulty : Difficulty.values()) {
+            for (GameMode gameMode : GameMode.values()) {
+                Scenario scenario = new Scenario(difficulty, gameMode);
+
+                long start = System.nanoTime();
+                SimulationStats stats = runner.run(scenario, games);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf("%s (%.0f games/s)%n%s%n%n", scenario, games / seconds, stats);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.tylerwilliams.tetris.sim;
+
+import com.github.tylerwilliams.tetris.TetrisGame;
+
+import java.util.Arrays;
+
+/**
+ * Aggregate statistics over a batch of finished games. Instances aren't thread safe; each worker records into its own
+ * instance and the instances are combined once the workers are done, so recording never contends on shared state.
+ */
+public final class SimulationStats {
+    private static final int SCORE_BUCKET_WIDTH = 10; // scores are always awarded in multiples of ten
+
+    private long games;
+    private long wins;
+    private long unfinished; // still running when the game time limit was reached
+    private long[] scoreCounts = new long[64];
+    private final long[] levelCounts = new long[TetrisGame.MAX_LEVEL + 1];
+    private long totalScore;
+    private long totalLines;
+    private long maxLines;
+    private long totalPieces;
+    private long totalSurvivalMillis;
+    private long minSurvivalMillis = Long.MAX_VALUE;
+    private long maxSurvivalMillis;
+
+    void record(TetrisGame game) {
+        games++;
+        if (game.isGameWon()) {
+            wins++;
+        } else if (game.isRunning()) {
+            unfinished++;
+        }
+
+        int scoreBucket = game.getScore() / SCORE_BUCKET_WIDTH;
+        if (scoreBucket >= scoreCounts.length) {
+            scoreCounts = Arrays.copyOf(scoreCounts, Math.max(scoreBucket + 1, scoreCounts.length * 2));
+        }
+        scoreCounts[scoreBucket]++;
+        totalScore += game.getScore();
+
+        levelCounts[Math.min(game.getLevel(), TetrisGame.MAX_LEVEL)]++;
+
+        totalLines += game.getTotalLinesCleared();
+        maxLines = Math.max(maxLines, game.getTotalLinesCleared());
+        totalPieces += game.getPiecesPlaced();
+
+        long survivalMillis = game.getElapsedMillis();
+        totalSurvivalMillis += survivalMillis;
+        minSurvivalMillis = Math.min(minSurvivalMillis, survivalMillis);
+        maxSurvivalMillis = Math.max(maxSurvivalMillis, survivalMillis);
+    }
+
+    /**
+     * Merges the other statistics into these ones
+     *
+     * @return This instance
+     */
+    SimulationStats combine(SimulationStats other) {
+        games += other.games;
+        wins += other.wins;
+        unfinished += other.unfinished;
+
+        if (other.scoreCounts.length > scoreCounts.length) {
+            scoreCounts = Arrays.copyOf(scoreCounts, other.scoreCounts.length);
+        }
+        for (int i = 0; i < other.scoreCounts.length; i++) {
+            scoreCounts[i] += other.scoreCounts[i];
+        }
+        totalScore += other.totalScore;
+
+        for (int i = 0; i < levelCounts.length; i++) {
+            levelCounts[i] += other.levelCounts[i];
+        }
+
+        totalLines += other.totalLines;
+        maxLines = Math.max(maxLines, other.maxLines);
+        totalPieces += other.totalPieces;
+
+        totalSurvivalMillis += other.totalSurvivalMillis;
+        minSurvivalMillis = Math.min(minSurvivalMillis, other.minSurvivalMillis);
+        maxSurvivalMillis = Math.max(maxSurvivalMillis, other.maxSurvivalMillis);
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    public double getMeanScore() {
+        return mean(totalScore);
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return Lowest score which at least the given percentage of games scored at or below
+     */
+    public int getScorePercentile(double percentile) {
+        long threshold = (long) Math.ceil(games * percentile / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < scoreCounts.length; bucket++) {
+            seen += scoreCounts[bucket];
+            if (seen >= threshold && seen > 0) {
+                return bucket * SCORE_BUCKET_WIDTH;
+            }
+        }
+        return 0;
+    }
+
+    public double getMeanLines() {
+        return mean(totalLines);
+    }
+
+    public long getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * @return Number of games which finished on the given level
+     */
+    public long getLevelCount(int level) {
+        return levelCounts[level];
+    }
+
+    public double getMeanPieces() {
+        return mean(totalPieces);
+    }
+
+    public double getMeanSurvivalMillis() {
+        return mean(totalSurvivalMillis);
+    }
+
+    public long getMinSurvivalMillis() {
+        return games == 0 ? 0 : minSurvivalMillis;
+    }
+
+    public long getMaxSurvivalMillis() {
+        return maxSurvivalMillis;
+    }
+
+    private double mean(long total) {
+        return games == 0 ? 0 : (double) total / games;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder levels = new StringBuilder();
+        for (int level = 1; level < levelCounts.length; level++) {
+            if (levelCounts[level] > 0) {
+                levels.append(String.format(" L%d=%.1f%%", level, 100.0 * levelCounts[level] / games));
+            }
+        }
+
+        return String.format("games=%d won=%.1f%% unfinished=%.1f%%%n", games, 100.0 * wins / games, 100.0 * unfinished / games)
+                + String.format("  score: mean=%.1f p10=%d p50=%d p90=%d p99=%d%n", getMeanScore(),
+                getScorePercentile(10), getScorePercentile(50), getScorePercentile(90), getScorePercentile(99))
+                + String.format("  lines: mean=%.2f max=%d%n", getMeanLines(), maxLines)
+                + String.format("  levels reached:%s%n", levels)
+                + String.format("  survival: mean=%.1fs min=%.1fs max=%.1fs%n", getMeanSurvivalMillis() / 1000,
+                getMinSurvivalMillis() / 1000.0, maxSurvivalMillis / 1000.0)
+                + String.format("  pieces: mean=%.1f", getMeanPieces());
+    }
+}
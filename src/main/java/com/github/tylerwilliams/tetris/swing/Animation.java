@@ -0,0 +1,81 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An effect made of a fixed number of keyframes spaced evenly in time, played on a {@link Timeline}. Keyframe
+ * {@code i} is due {@code i * keyframeMillis} after the animation starts, and the animation finishes one interval after
+ * its last keyframe. A late frame applies every keyframe that has fallen due in order, so an animation always takes the
+ * same time and ends in the same state however irregular the frames are. Only to be used from the EDT.
+ */
+abstract class Animation {
+    private final int keyframes;
+    private final long keyframeNanos;
+    private long startNanos;
+    private int nextKeyframe;
+    private boolean done; // finished or cancelled
+
+    Animation(int keyframes, int keyframeMillis) {
+        if (keyframes < 1 || keyframeMillis < 1) {
+            throw new IllegalArgumentException("Animations need at least one keyframe and a positive keyframe interval");
+        }
+        this.keyframes = keyframes;
+        this.keyframeNanos = TimeUnit.MILLISECONDS.toNanos(keyframeMillis);
+    }
+
+    /**
+     * Applies the keyframe with the given index. Keyframes are always applied in order and none are skipped
+     */
+    protected abstract void keyframe(int index);
+
+    /**
+     * Called once the last keyframe's interval is over, unless the animation was cancelled first
+     */
+    protected void finished() {
+    }
+
+    /**
+     * Called if the animation is cancelled before it finishes, to put back anything it shouldn't leave half done
+     */
+    protected void cancelled() {
+    }
+
+    /**
+     * Stops the animation where it is. It won't apply any more keyframes and is dropped from its timeline on the next
+     * frame
+     */
+    void cancel() {
+        if (!done) {
+            done = true;
+            cancelled();
+        }
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    void start(long nowNanos) {
+        startNanos = nowNanos;
+        nextKeyframe = 0;
+        done = false;
+    }
+
+    /**
+     * Applies the keyframes that have fallen due by the given time
+     *
+     * @return True if the animation has finished
+     */
+    boolean advance(long nowNanos) {
+        long elapsed = nowNanos - startNanos;
+        while (!done && nextKeyframe < keyframes && elapsed >= nextKeyframe * keyframeNanos) {
+            keyframe(nextKeyframe++);
+        }
+
+        if (!done && elapsed >= keyframes * keyframeNanos) {
+            done = true;
+            finished();
+        }
+        return done;
+    }
+}
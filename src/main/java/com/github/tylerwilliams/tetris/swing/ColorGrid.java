@@ -1,6 +1,8 @@
 package com.github.tylerwilliams.tetris.swing;
 
 import com.github.tylerwilliams.tetris.ColoredSquare;
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
 
 import javax.swing.*;
 import java.awt.*;
@@ -10,10 +12,11 @@ import java.util.Collection;
  * Grid-based panels that represent a matrix of colorable squares
  */
 abstract class ColorGrid extends JPanel {
+    private static final Histogram PAINT_TIME = Metrics.histogram("paintComponent");
 
-    private final int rows, columns;
+    private int rows, columns;
     private final int padding;
-    private final SquareStyle squareStyle;
+    private final TileCache tiles;
 
     ColorGrid(int rows, int columns, int cellDimension) {
         this(rows, columns, cellDimension, 0, SquareStyle.DEFAULT);
@@ -26,36 +29,145 @@ abstract class ColorGrid extends JPanel {
     ColorGrid(int rows, int columns, int cellDimension, int padding, SquareStyle style) {
         this.rows = rows;
         this.columns = columns;
-        this.squareStyle = style;
+        this.tiles = new TileCache(style);
         this.padding = padding;
         setPreferredSize(new Dimension(columns * cellDimension, rows * cellDimension));
     }
 
+    int getRows() {
+        return rows;
+    }
+
     int getColumns() {
         return columns;
     }
 
+    /**
+     * Changes the dimensions of this grid. The caller is responsible for revalidating the layout it sits in
+     */
+    void setGridSize(int rows, int columns, int cellDimension) {
+        this.rows = rows;
+        this.columns = columns;
+        setPreferredSize(new Dimension(columns * cellDimension, rows * cellDimension));
+        repaint();
+    }
+
     /**
      * Re-renders the display of this grid according to the current state of its color model
      */
     @Override
     protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
         super.paintComponent(g);
+        paintSquares(g);
+        PAINT_TIME.recordSince(start);
+    }
+
+    private void paintSquares(Graphics g) {
+        int width = getUnitWidth();
+        int height = getUnitHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        // Only the rows and columns overlapping the area being repainted are drawn, so a small repaint of a large or
+        // scrolled grid costs no more than a small grid would
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        // Ghost outlines reach one pixel into the squares below and to the right, so the squares just above and left
+        // of the area are painted too
+        int firstRow = Math.max(0, getRowAt(clip.y) - 1);
+        int lastRow = Math.min(rows - 1, getRowAt(clip.y + clip.height - 1));
+        int firstColumn = Math.max(0, getColumnAt(clip.x) - 1);
+        int lastColumn = Math.min(columns - 1, getColumnAt(clip.x + clip.width - 1));
+        if (firstRow > lastRow || firstColumn > lastColumn) {
+            return;
+        }
+
+        paintSquares(g, clip, firstRow, lastRow, firstColumn, lastColumn);
+    }
+
+    /**
+     * Paints the squares within the given grid rows and columns, inclusive, which cover the clip area
+     */
+    void paintSquares(Graphics g, Rectangle clip, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        int width = getUnitWidth();
+        int height = getUnitHeight();
+
+        for (var square : getCurrentColors(firstRow, lastRow)) {
+            if (square.column() < firstColumn || square.column() > lastColumn) {
+                continue;
+            }
 
-        for (var square : getCurrentColors()) {
             int squareX = getXCoordinate(square) + padding;
             int squareY = getYCoordinate(square) + padding;
-            int width = getUnitWidth();
-            int height = getUnitHeight();
 
             if (square.color() == null) {
-                squareStyle.paintGhost(g, squareX, squareY, width, height);
+                tiles.paintGhost(g, squareX, squareY, width, height);
             } else {
-                squareStyle.paintSquare(g, square.color(), squareX, squareY, width, height);
+                tiles.paintSquare(g, square.color(), squareX, squareY, width, height);
             }
         }
     }
 
+    /**
+     * Paints one square at the given grid row and column, or a ghost square if the color is null
+     */
+    void paintCell(Graphics g, Color color, int row, int column) {
+        int width = getUnitWidth();
+        int height = getUnitHeight();
+        int cellX = column * width + padding;
+        int cellY = row * height + padding;
+
+        if (color == null) {
+            tiles.paintGhost(g, cellX, cellY, width, height);
+        } else {
+            tiles.paintSquare(g, color, cellX, cellY, width, height);
+        }
+    }
+
+    /**
+     * @return Area covered by the given grid rows and columns, inclusive
+     */
+    Rectangle getCellBounds(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        int width = getUnitWidth();
+        int height = getUnitHeight();
+        return new Rectangle(firstColumn * width + padding, firstRow * height + padding,
+                (lastColumn - firstColumn + 1) * width, (lastRow - firstRow + 1) * height);
+    }
+
+    TileCache getTiles() {
+        return tiles;
+    }
+
+    int getPadding() {
+        return padding;
+    }
+
+    /**
+     * @return Grid row containing the given y coordinate, which may be outside the grid
+     */
+    int getRowAt(int y) {
+        return Math.floorDiv(y - padding, getUnitHeight());
+    }
+
+    /**
+     * @return Grid column containing the given x coordinate, which may be outside the grid
+     */
+    int getColumnAt(int x) {
+        return Math.floorDiv(x - padding, getUnitWidth());
+    }
+
+    /**
+     * Brings the display up to date with the color model at the end of a frame. Grids that can tell which of their
+     * squares changed override this to repaint only those
+     */
+    void repaintChanges() {
+        repaint();
+    }
+
     protected int getXCoordinate(ColoredSquare square) {
         return square.column() * getUnitWidth();
     }
@@ -77,4 +189,12 @@ abstract class ColorGrid extends JPanel {
      */
     abstract Collection<ColoredSquare> getCurrentColors();
 
+    /**
+     * @return Colored squares to paint within the given grid rows, inclusive. Squares outside the range are skipped
+     * anyway, but grids backed by a large model should override this so they aren't built in the first place
+     */
+    Collection<ColoredSquare> getCurrentColors(int firstRow, int lastRow) {
+        return getCurrentColors();
+    }
+
 }
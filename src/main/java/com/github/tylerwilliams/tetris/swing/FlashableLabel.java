@@ -4,21 +4,37 @@ import javax.swing.*;
 import java.awt.*;
 
 class FlashableLabel extends JLabel {
+    private static final int FLASH_KEYFRAMES = 60;
+    private static final int FLASH_INTERVAL = 50;
+
+    private Animation flash; // most recent flash, which may still be playing
 
     FlashableLabel(String text, int center) {
         super(text, center);
     }
 
-    void flash(Color flashColor) {
+    /**
+     * @return Animation that flashes the text between the given color and its current one for a few seconds. Starting
+     * another flash cancels this one, putting the text back to its original color first
+     */
+    Animation flash(Color flashColor) {
+        if (flash != null) {
+            flash.cancel();
+        }
+
         Color currentColor = getForeground();
-        try {
-            for (int i = 1; i <= 60; i++) {
-                setForeground(i % 2 == 0 ? currentColor : flashColor);
-                Thread.sleep(50);
+        flash = new Animation(FLASH_KEYFRAMES, FLASH_INTERVAL) {
+            @Override
+            protected void keyframe(int index) {
+                setForeground(index % 2 == 0 ? flashColor : currentColor);
             }
-        } catch (InterruptedException e) {
-            setForeground(currentColor);
-        }
+
+            @Override
+            protected void cancelled() {
+                setForeground(currentColor);
+            }
+        };
+        return flash;
     }
 
 }
@@ -0,0 +1,266 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import com.github.tylerwilliams.tetris.BoardSize;
+import com.github.tylerwilliams.tetris.ColoredSquare;
+import com.github.tylerwilliams.tetris.TetrisGame;
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Grid displaying the visible rows of a game's board, including its active tetronimo and ghost squares
+ * <p>
+ * The grid remembers what it last painted in each cell. At the end of a frame {@link #repaintChanges()} compares that
+ * with the game and repaints only the cells that differ, so moving a piece costs a few cells of painting rather than
+ * the whole board. Changed cells in consecutive rows are repainted together as one rectangle.
+ * <p>
+ * Placed squares are kept in a {@link StackLayer}, which is only painted again where the board changes. Painting any
+ * part of the grid draws that part of the layer and then the active tetronimo and ghost squares over it.
+ */
+class GameBoardGrid extends ColorGrid {
+    private static final Histogram DIFF_TIME = Metrics.histogram("boardDiff");
+    private static final Counter CELLS_CHANGED = Metrics.counter("boardCellsChanged");
+    private static final Counter CELLS_REPAINTED = Metrics.counter("boardCellsRepainted");
+    private static final Counter REGIONS_REPAINTED = Metrics.counter("boardRegionsRepainted");
+
+    // Stands for cells that haven't been painted yet. It's transparent like the game's ghost color, but never equal to it
+    private static final Color UNPAINTED = new Color(0x00010203, true);
+
+    private final TetrisGame game;
+    private Color[] paintedColors = new Color[0]; // what each cell last showed, row by row
+    private int paintedRows, paintedColumns; // grid size paintedColors was made for
+    private Color[] currentColors = new Color[0]; // scratch space for reading the game
+    private Color[] placedColors = new Color[0]; // scratch space for reading placed squares into the stack layer
+    private StackLayer stackLayer;
+    private int[] changedRegions = new int[16]; // first row, last row, first column and last column of each region
+
+    GameBoardGrid(TetrisGame game, int cellDimension) {
+        super(game.getBoardSize().rows(), game.getBoardSize().columns(), cellDimension);
+        this.game = game;
+    }
+
+    /**
+     * Resizes this grid to match the game's current board
+     */
+    void setCellDimension(int cellDimension) {
+        BoardSize boardSize = game.getBoardSize();
+        setGridSize(boardSize.rows(), boardSize.columns(), cellDimension);
+    }
+
+    @Override
+    public Collection<ColoredSquare> getCurrentColors() {
+        synchronized (game) {
+            return game.getColoredSquares();
+        }
+    }
+
+    @Override
+    void paintSquares(Graphics g, Rectangle clip, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        int columns = getColumns();
+        int width = getUnitWidth();
+        int height = getUnitHeight();
+        checkGridSize();
+
+        Rectangle visible = getVisibleRect();
+        stackLayer.cover((Graphics2D) g,
+                Math.min(firstRow, Math.max(0, getRowAt(visible.y))),
+                Math.max(lastRow, Math.min(getRows() - 1, getRowAt(visible.y + visible.height - 1))),
+                Math.min(firstColumn, Math.max(0, getColumnAt(visible.x))),
+                Math.max(lastColumn, Math.min(columns - 1, getColumnAt(visible.x + visible.width - 1))),
+                width, height, getPadding(), getBackground());
+        int boardVersion = readColors(firstRow, lastRow, true);
+        if (boardVersion < 0) {
+            return;
+        }
+        if (stackLayer.needsUpdate(boardVersion)) {
+            stackLayer.update(placedColors, boardVersion, getTiles());
+        }
+        stackLayer.draw(g);
+
+        // Only cells lying wholly inside the clip are known to show what's painted now. Any others keep what they last
+        // showed, so they're repainted by the next call to repaintChanges if that's out of date
+        int firstWholeRow = -Math.floorDiv(getPadding() - clip.y, height);
+        int lastWholeRow = Math.floorDiv(clip.y + clip.height - getPadding(), height) - 1;
+        int firstWholeColumn = -Math.floorDiv(getPadding() - clip.x, width);
+        int lastWholeColumn = Math.floorDiv(clip.x + clip.width - getPadding(), width) - 1;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            int currentOffset = (row - firstRow) * columns;
+            boolean wholeRow = row >= firstWholeRow && row <= lastWholeRow;
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Color color = currentColors[currentOffset + column];
+                if (wholeRow && column >= firstWholeColumn && column <= lastWholeColumn) {
+                    paintedColors[row * columns + column] = color;
+                }
+                if (color == null) {
+                    continue;
+                }
+
+                // The layer already shows placed squares, unless the outline of a ghost square to the left, above or
+                // diagonally above has just been drawn over its edge
+                Color layerColor = stackLayer.covers(row, column) ? stackLayer.getColor(row, column) : null;
+                if (!color.equals(layerColor) || isNextToGhost(row - firstRow, column, firstColumn)) {
+                    paintCell(g, color == TetrisGame.GHOST_COLOR ? null : color, row, column);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True if there's a ghost square in {@link #currentColors} to the left of, above, or above and to the left
+     * of the given cell, whose row is relative to the first row read
+     */
+    private boolean isNextToGhost(int readRow, int column, int firstColumn) {
+        int offset = readRow * getColumns() + column;
+        if (column > firstColumn && currentColors[offset - 1] == TetrisGame.GHOST_COLOR) {
+            return true;
+        }
+        if (readRow > 0) {
+            int above = offset - getColumns();
+            return currentColors[above] == TetrisGame.GHOST_COLOR
+                    || (column > firstColumn && currentColors[above - 1] == TetrisGame.GHOST_COLOR);
+        }
+        return false;
+    }
+
+    @Override
+    void repaintChanges() {
+        if (getUnitWidth() <= 0 || getUnitHeight() <= 0 || !isShowing()) {
+            return; // it'll be painted in full when it's shown
+        }
+        if (paintedRows != getRows() || paintedColumns != getColumns()) {
+            repaint(); // the board has been resized since it was last painted
+            return;
+        }
+
+        long start = System.nanoTime();
+        Rectangle visible = getVisibleRect();
+        int firstRow = Math.max(0, getRowAt(visible.y));
+        int lastRow = Math.min(getRows() - 1, getRowAt(visible.y + visible.height - 1));
+        int firstColumn = Math.max(0, getColumnAt(visible.x));
+        int lastColumn = Math.min(getColumns() - 1, getColumnAt(visible.x + visible.width - 1));
+        if (firstRow > lastRow || firstColumn > lastColumn) {
+            return;
+        }
+
+        if (readColors(firstRow, lastRow, false) < 0) {
+            return;
+        }
+        int regions = findChangedRegions(firstRow, lastRow, firstColumn, lastColumn);
+        DIFF_TIME.recordSince(start);
+
+        // Swing's RepaintManager merges the repaint requests for one component into their bounding box, which would
+        // grow to most of the board when a piece and its ghost are far apart, so each region is painted by itself
+        for (int i = 0; i < regions * 4; i += 4) {
+            int rows = changedRegions[i + 1] - changedRegions[i] + 1;
+            int columns = changedRegions[i + 3] - changedRegions[i + 2] + 1;
+            CELLS_REPAINTED.add(rows * columns);
+
+            // One pixel wider and taller for the edge a ghost outline draws into the next cell
+            Rectangle region = getCellBounds(changedRegions[i], changedRegions[i + 1], changedRegions[i + 2], changedRegions[i + 3]);
+            region.width++;
+            region.height++;
+            paintImmediately(region);
+        }
+        REGIONS_REPAINTED.add(regions);
+    }
+
+    /**
+     * Compares the cells just read from the game with what was last painted in them, grouping the changes into regions
+     * of consecutive rows
+     *
+     * @return Number of regions stored in {@link #changedRegions}
+     */
+    private int findChangedRegions(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        int columns = getColumns();
+        int regions = 0;
+        int changedCells = 0;
+        int regionStart = -1, regionFirstColumn = 0, regionLastColumn = 0;
+        for (int row = firstRow; row <= lastRow + 1; row++) {
+            int rowFirstColumn = Integer.MAX_VALUE, rowLastColumn = -1;
+            if (row <= lastRow) {
+                int currentOffset = (row - firstRow) * columns;
+                int paintedOffset = row * columns;
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    if (!Objects.equals(currentColors[currentOffset + column], paintedColors[paintedOffset + column])) {
+                        rowFirstColumn = Math.min(rowFirstColumn, column);
+                        rowLastColumn = column;
+                        changedCells++;
+                    }
+                }
+            }
+
+            if (rowLastColumn >= 0) {
+                if (regionStart < 0) {
+                    regionStart = row;
+                    regionFirstColumn = rowFirstColumn;
+                    regionLastColumn = rowLastColumn;
+                } else {
+                    regionFirstColumn = Math.min(regionFirstColumn, rowFirstColumn);
+                    regionLastColumn = Math.max(regionLastColumn, rowLastColumn);
+                }
+            } else if (regionStart >= 0) {
+                if (changedRegions.length < (regions + 1) * 4) {
+                    changedRegions = Arrays.copyOf(changedRegions, changedRegions.length * 2);
+                }
+                changedRegions[regions * 4] = regionStart;
+                changedRegions[regions * 4 + 1] = row - 1;
+                changedRegions[regions * 4 + 2] = regionFirstColumn;
+                changedRegions[regions * 4 + 3] = regionLastColumn;
+                regions++;
+                regionStart = -1;
+            }
+        }
+
+        CELLS_CHANGED.add(changedCells);
+        return regions;
+    }
+
+    /**
+     * Makes the record of painted cells and the stack layer fit the grid, if its size has changed
+     */
+    private void checkGridSize() {
+        if (paintedRows != getRows() || paintedColumns != getColumns()) {
+            paintedRows = getRows();
+            paintedColumns = getColumns();
+            paintedColors = new Color[paintedRows * paintedColumns];
+            currentColors = new Color[paintedRows * paintedColumns];
+            placedColors = new Color[paintedRows * paintedColumns];
+            stackLayer = new StackLayer(paintedRows, paintedColumns);
+            Arrays.fill(paintedColors, UNPAINTED);
+        }
+    }
+
+    /**
+     * Reads what the game shows in the given grid rows into {@link #currentColors}, starting from its first entry. If
+     * asked to, and the stack layer needs them, placed squares in the rows the layer covers are read into
+     * {@link #placedColors} at the same time
+     *
+     * @return Version of the board that was read, or -1 if the game's board no longer matches this grid, which is about
+     * to be resized and repainted
+     */
+    private int readColors(int firstRow, int lastRow, boolean readStack) {
+        checkGridSize();
+
+        // The game may be ticked on another thread, so its colors are copied while it's locked and used after
+        synchronized (game) {
+            BoardSize boardSize = game.getBoardSize();
+            if (boardSize.rows() != getRows() || boardSize.columns() != getColumns()) {
+                return -1;
+            }
+
+            int boardVersion = game.getBoardVersion() & Integer.MAX_VALUE;
+            game.copySquareColors(firstRow + TetrisGame.LEADING_OVERFLOW_ROWS, lastRow + TetrisGame.LEADING_OVERFLOW_ROWS, currentColors);
+            if (readStack && stackLayer.needsUpdate(boardVersion)) {
+                game.copyPlacedColors(stackLayer.getFirstRow() + TetrisGame.LEADING_OVERFLOW_ROWS,
+                        stackLayer.getLastRow() + TetrisGame.LEADING_OVERFLOW_ROWS, placedColors);
+            }
+            return boardVersion;
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.github.tylerwilliams.tetris.swing;
 
 import com.github.tylerwilliams.tetris.*;
+import com.github.tylerwilliams.tetris.task.Tasks;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
-import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.List;
@@ -72,20 +72,29 @@ class LeaderBoardFrame extends JFrame {
         refreshTable();
     }
 
+    /**
+     * Reads the scores for the selected game mode and difficulty in the background, then shows them
+     */
     private void refreshTable() {
         Difficulty difficulty = (Difficulty) difficultyComboBox.getSelectedItem();
         GameMode gameMode = (GameMode) gameModeComboBox.getSelectedItem();
 
-        List<Score> scores;
-        try {
-            scores = ScoreRepository.getScores(difficulty, gameMode);
-        } catch (IOException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Could not read high scores", "Error", JOptionPane.ERROR_MESSAGE);
-            dispose();
-            return;
-        }
+        Tasks.callIo(() -> ScoreRepository.getScores(difficulty, gameMode)).whenCompleteAsync((scores, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(null, "Could not read high scores", "Error", JOptionPane.ERROR_MESSAGE);
+                dispose();
+                return;
+            }
+
+            // The selection may have changed again while these scores were being read
+            if (difficultyComboBox.getSelectedItem() == difficulty && gameModeComboBox.getSelectedItem() == gameMode) {
+                showScores(scores);
+            }
+        }, EventQueue::invokeLater);
+    }
 
+    private void showScores(List<Score> scores) {
         Object[][] scoresTableData = scores.stream()
                 .map(score -> Stream.of(COLUMNS).map(__ -> score).toArray(Object[]::new))
                 .toArray(Object[][]::new);
@@ -2,18 +2,34 @@ package com.github.tylerwilliams.tetris.swing;
 
 import com.github.tylerwilliams.tetris.*;
 import com.github.tylerwilliams.tetris.audio.TetrisAudioSystem;
+import com.github.tylerwilliams.tetris.event.Broker;
+import com.github.tylerwilliams.tetris.event.DeliveryPolicy;
 import com.github.tylerwilliams.tetris.event.TetrisEvent;
+import com.github.tylerwilliams.tetris.event.WaitStrategy;
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+import com.github.tylerwilliams.tetris.task.TaskScope;
+import com.github.tylerwilliams.tetris.task.Tasks;
 
 import javax.swing.*;
+import javax.swing.Timer;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
 
 import static com.github.tylerwilliams.tetris.Utility.formatSeconds;
 
@@ -26,151 +42,185 @@ public class MasterTetrisFrame extends JFrame {
 
     static final Font ARIAL_HEADER = new Font("Arial", Font.BOLD, 17);
     static final Font ARIAL_DESCRIPTION = new Font("Arial", Font.PLAIN, 13);
-    private static final ExecutorService THREAD_POOL = Executors.newCachedThreadPool();
+    // Saves run one at a time so an older save can never land on top of a newer one
+    private static final Executor SAVE_EXECUTOR = Tasks.newSerialIoExecutor();
+    // Soundtrack changes can wait on a soundtrack being decoded, so they're made off the EDT, but still in order
+    private static final Executor SOUNDTRACK_EXECUTOR = Tasks.newSerialIoExecutor();
+    private static final int AUTOSAVE_INTERVAL_MILLIS = 5000;
+    private static final int CLOSE_SAVE_TIMEOUT_MILLIS = 2000;
+    private static final int REWIND_PLACEMENTS = 300;
+    private static final Histogram INPUT_TO_PAINT = Metrics.histogram("inputToPaint");
 
     private final TetrisAudioSystem audioSystem;
     private final TetrisGame game;
+    private final InputController inputController;
+    private final GameLoop gameLoop;
+    private final SwingGameDriver replayDriver;
+    private final ReplayRecorder replayRecorder;
+    private final RewindHistory rewindHistory = new RewindHistory(REWIND_PLACEMENTS);
+    private GameSnapshot savedState; // free play position saved by the player to load again later, if any
+    private ReplayPlayer replayPlayer; // set while a recorded game is being played back
     private final BoardPanel boardPanel;
-    @SuppressWarnings("FieldCanBeLocal")
     private final TetronimoDisplayPanel nextTetronimoPanel;
     private final TetronimoDisplayPanel holdPanel;
     private final MenuPanel menuPanel;
     private final SettingsPanel settingsPanel;
     private ScorePanel scorePanel;
+    private final RepaintScheduler repaintScheduler = new RepaintScheduler();
+    private Tetronimo previewedTetronimo; // active tetronimo when the next and hold panels were last marked for repaint
+    private long unpaintedInputNanos; // when the oldest key press not yet shown on the board happened, or 0 if none
+    private final Timer autosaveTimer = new Timer(AUTOSAVE_INTERVAL_MILLIS, e -> autosave());
+    private boolean gameInProgress; // a game the player started (not a replay) that hasn't ended yet
+    private final TaskScope gameTasks = Tasks.newScope(); // background work for the current game, cancelled by a new one
+    private volatile boolean soundtrackWanted; // checked by the background listener that loads each level's soundtrack
+
+    private final KeyHandler keyHandler = new KeyHandler();
+
+    /**
+     * Forwards presses and releases of the game's keys to the input controller, which applies them on the game loop
+     * thread and does its own auto-repeat. Auto-repeats from the OS are filtered out here. Depending on the platform
+     * they arrive either as extra presses or, on X11, as a release followed immediately by another press
+     */
+    private class KeyHandler extends KeyAdapter {
+        private final BitSet keysDown = new BitSet();
+        private final BitSet releasesPending = new BitSet(); // released keys that may be about to be pressed again
 
-    // Tracks progress of Asynchronous UI effects
-    private Future<?> clearTask;
-    private Future<?> flashLabelTask;
-
-    private final KeyAdapter keyHandler = new KeyAdapter() {
-
-        final Set<Integer> pressedKeyCodes = new HashSet<>();
-
+        @Override
         public void keyPressed(KeyEvent e) {
             int keyCode = e.getKeyCode();
-            pressedKeyCodes.add(keyCode);
-
-            switch (keyCode) {
-                case KeyEvent.VK_LEFT -> {
-                    if (pressedKeyCodes.contains(KeyEvent.VK_S)) {
-                        game.superSlideActiveTetronimoLeft();
-                        audioSystem.playSuperSlideSound();
-                    } else {
-                        game.moveActiveTetronimoLeft();
-                    }
-                }
-
-                case KeyEvent.VK_RIGHT -> {
-                    if (pressedKeyCodes.contains(KeyEvent.VK_S)) {
-                        game.superSlideActiveTetronimoRight();
-                        audioSystem.playSuperSlideSound();
-                    } else {
-                        game.moveActiveTetronimoRight();
-                    }
-                }
-
-                case KeyEvent.VK_DOWN -> game.moveActiveTetronimoDown();
-
-                case KeyEvent.VK_UP -> {
-                    if (game.rotateActiveTetronimo(Rotation.CLOCKWISE)) {
-                        audioSystem.playClockwiseRotationSound();
-                    }
-                }
+            if (onPracticeKey(keyCode)) {
+                return;
+            }
 
-                case KeyEvent.VK_F -> {
-                    if (game.rotateActiveTetronimo(Rotation.COUNTER_CLOCKWISE)) {
-                        audioSystem.playCounterClockwiseRotationSound();
-                    }
-                }
+            InputController.Control control = getControl(keyCode);
+            if (control == null) {
+                return;
+            }
 
-                case KeyEvent.VK_D -> { // Hold set
+            boolean repeat = keysDown.get(keyCode) || releasesPending.get(keyCode);
+            keysDown.set(keyCode);
+            releasesPending.clear(keyCode);
+            if (repeat) {
+                return;
+            }
 
-                    Tetronimo activeTetronimo = game.getActiveTetronimo();
-                    if (game.getHoldTetronimo().isEmpty() && !activeTetronimo.isHold()) {
-                        activeTetronimo.tagAsHold();
-                        audioSystem.playHoldSound();
-                        game.setHoldTetronimo(activeTetronimo);
-                        Tetronimo nextTetronimo = game.getConveyor().next();
-                        game.spawn(nextTetronimo);
-                    }
-                }
+            long nanos = System.nanoTime();
+            if (unpaintedInputNanos == 0) {
+                unpaintedInputNanos = nanos;
+            }
+            inputController.press(control, nanos);
+        }
 
-                case KeyEvent.VK_E -> { // Hold release
+        @Override
+        public void keyReleased(KeyEvent e) {
+            int keyCode = e.getKeyCode();
+            InputController.Control control = getControl(keyCode);
+            if (control == null || !keysDown.get(keyCode)) {
+                return;
+            }
 
-                    if (game.getHoldTetronimo().isPresent()) {
-                        Tetronimo heldPiece = game.getHoldTetronimo().get();
-                        game.spawn(heldPiece);
-                        game.clearHoldTetronimo();
-                        audioSystem.playReleaseSound();
-                    }
-                }
+            keysDown.clear(keyCode);
+            releasesPending.set(keyCode);
+            long nanos = System.nanoTime();
 
-                case KeyEvent.VK_SPACE -> {
-                    game.dropCurrentTetronimo();
-                    audioSystem.playTetronimoPlacementSound();
-                    game.tryMoveActiveTetronimoDown();
+            // An auto-repeated press is already queued behind this release, so it's been handled by the time this runs
+            EventQueue.invokeLater(() -> {
+                if (releasesPending.get(keyCode)) {
+                    releasesPending.clear(keyCode);
+                    inputController.release(control, nanos);
                 }
-            }
+            });
+        }
 
-            repaint();
+        void releaseAll() {
+            keysDown.clear();
+            releasesPending.clear();
+            inputController.reset();
         }
 
-        public void keyReleased(KeyEvent e) {
-            pressedKeyCodes.remove(e.getKeyCode());
+        private static InputController.Control getControl(int keyCode) {
+            return switch (keyCode) {
+                case KeyEvent.VK_LEFT -> InputController.Control.LEFT;
+                case KeyEvent.VK_RIGHT -> InputController.Control.RIGHT;
+                case KeyEvent.VK_DOWN -> InputController.Control.SOFT_DROP;
+                case KeyEvent.VK_UP -> InputController.Control.ROTATE_CLOCKWISE;
+                case KeyEvent.VK_F -> InputController.Control.ROTATE_COUNTER_CLOCKWISE;
+                case KeyEvent.VK_D -> InputController.Control.HOLD;
+                case KeyEvent.VK_E -> InputController.Control.RELEASE_HOLD;
+                case KeyEvent.VK_SPACE -> InputController.Control.HARD_DROP;
+                case KeyEvent.VK_S -> InputController.Control.SUPER_SLIDE;
+                default -> null;
+            };
         }
-    };
+    }
 
     public MasterTetrisFrame() {
         this.audioSystem = TetrisAudioSystem.getInstance();
 
         this.game = new TetrisGame();
-        this.game.getFallTimer().setInitialDelay(0);
-        this.game.getFallTimer().addActionListener(e -> repaint());
+        this.inputController = new InputController(game, this::onInputApplied);
+        this.gameLoop = new GameLoop(game, inputController);
+        this.replayDriver = new SwingGameDriver(this::advanceReplay, GameClock.SYSTEM);
+        this.replayRecorder = new ReplayRecorder(game);
+        this.game.setRewindHistory(rewindHistory);
 
-        this.game.getGameTimer().addActionListener(e -> {
-            scorePanel.timeLabel.repaint();
-            scorePanel.timeProgressBar.repaint();
-        });
+        // Audio is loaded and played on a background thread, since decoding a soundtrack takes long enough to stall the
+        // game tick that changed level. Everything else touches Swing components, so it stays on the EDT
+        this.game.startBackgroundDispatch(Broker.DEFAULT_RING_BUFFER_CAPACITY, 1, WaitStrategy.BLOCKING);
 
-        this.game.subscribe(TetrisEvent.TIME_ATTACK_FAIL, e -> onGameOver());
-        this.game.subscribe(TetrisEvent.SPAWN_FAIL, e -> onGameOver());
-        this.game.subscribe(TetrisEvent.GAME_WON, e -> onWin());
+        this.game.subscribe(TetrisEvent.GRAVITY_STEP, DeliveryPolicy.EVENT_DISPATCH_THREAD, e -> onBoardChanged());
+        this.game.subscribe(TetrisEvent.INPUT_APPLIED, DeliveryPolicy.EVENT_DISPATCH_THREAD, e -> onBoardChanged());
 
-        this.game.subscribe(TetrisEvent.LINES_CLEARED, event -> {
-            audioSystem.playClearLineSound();
-            scorePanel.totalLinesLabel.repaint();
-            scorePanel.linesClearedProgressBar.repaint();
-        });
+        this.game.subscribeInt(TetrisEvent.GAME_TIME_CHANGED, DeliveryPolicy.EVENT_DISPATCH_THREAD, gameTime ->
+            repaintScheduler.markDirty(scorePanel.timeLabel, scorePanel.timeProgressBar));
 
-        this.game.subscribe(TetrisEvent.LEVEL_CHANGED, event -> {
-            int newLevel = (int) event;
+        this.game.subscribe(TetrisEvent.TIME_ATTACK_FAIL, DeliveryPolicy.EVENT_DISPATCH_THREAD, e -> onGameOver());
+        this.game.subscribe(TetrisEvent.SPAWN_FAIL, DeliveryPolicy.EVENT_DISPATCH_THREAD, e -> onGameOver());
+        this.game.subscribe(TetrisEvent.GAME_WON, DeliveryPolicy.EVENT_DISPATCH_THREAD, e -> onWin());
 
-            scorePanel.levelLabel.setText("Level: " + newLevel);
-            scorePanel.timeProgressBar.repaint();
+        this.game.subscribeInt(TetrisEvent.LINES_CLEARED, DeliveryPolicy.BACKGROUND, lines -> audioSystem.playClearLineSound());
+        this.game.subscribeInt(TetrisEvent.LINES_CLEARED, DeliveryPolicy.EVENT_DISPATCH_THREAD, lines ->
+            repaintScheduler.markDirty(scorePanel.totalLinesLabel, scorePanel.linesClearedProgressBar));
 
-            audioSystem.startSoundtrack(newLevel);
+        this.game.subscribeInt(TetrisEvent.LEVEL_CHANGED, DeliveryPolicy.BACKGROUND, this::startSoundtrack);
+        this.game.subscribeInt(TetrisEvent.LEVEL_CHANGED, DeliveryPolicy.EVENT_DISPATCH_THREAD, newLevel -> {
+            scorePanel.levelLabel.setText("Level: " + newLevel);
+            repaintScheduler.markDirty(scorePanel.timeProgressBar);
 
             if (newLevel > 1) {
-                flashLabelTask = THREAD_POOL.submit(() -> scorePanel.levelLabel.flash(Color.YELLOW));
+                repaintScheduler.play(scorePanel.levelLabel.flash(Color.YELLOW));
             }
         });
 
-        this.game.subscribe(TetrisEvent.SCORE_CHANGED, score -> scorePanel.scoreLabel.repaint());
+        this.game.subscribeInt(TetrisEvent.SCORE_CHANGED, DeliveryPolicy.EVENT_DISPATCH_THREAD, score -> repaintScheduler.markDirty(scorePanel.scoreLabel));
 
         this.boardPanel = new BoardPanel();
 
+        Metrics.gauge("fallDelay", game::getFallDelay);
+        Metrics.gauge("level", game::getLevel);
+        Metrics.gauge("boardHeight", game::getStackHeight);
+        Metrics.gauge("framesPerSecond", repaintScheduler::getFramesPerSecond);
+        Metrics.gauge("lastFrameDirtyComponents", repaintScheduler::getLastFrameDirtyCount);
+        Metrics.gauge("eventQueueDepth", () -> game.getBackgroundDispatchStats().queueDepth());
+        Metrics.gauge("eventsDropped", () -> game.getBackgroundDispatchStats().dropped());
+        this.game.subscribe(TetrisEvent.GRAVITY_STEP, DeliveryPolicy.EVENT_DISPATCH_THREAD, e -> boardPanel.followActiveTetronimo());
+
         this.nextTetronimoPanel = new TetronimoDisplayPanel("Next") {
             @Override
             public Collection<ColoredSquare> getCurrentColors() {
-                Tetronimo nextTetronimo = game.getConveyor().peek();
-                return nextTetronimo == null ? List.of() : nextTetronimo.getPreviewPanelSquares();
+                synchronized (game) {
+                    Tetronimo nextTetronimo = game.getConveyor().peek();
+                    return nextTetronimo == null ? List.of() : nextTetronimo.getPreviewPanelSquares();
+                }
             }
         };
 
         this.holdPanel = new TetronimoDisplayPanel("Hold") {
             @Override
             public Collection<ColoredSquare> getCurrentColors() {
-                return game.getHoldTetronimo().map(Tetronimo::getPreviewPanelSquares).orElse(Collections.emptyList());
+                synchronized (game) {
+                    return game.getHoldTetronimo().map(Tetronimo::getPreviewPanelSquares).orElse(Collections.emptyList());
+                }
             }
         };
 
@@ -189,6 +239,8 @@ public class MasterTetrisFrame extends JFrame {
         controls.put("Spacebar:", "Instant drop");
         controls.put("'D':", "Set hold");
         controls.put("'E':", "Release hold");
+        controls.put("Backspace:", "Rewind (Free Play)");
+        controls.put("F5 / F9:", "Save / load (Free Play)");
 
         JPanel keys = new JPanel(new GridLayout(controls.size(), 1));
         JPanel actions = new JPanel(new GridLayout(controls.size(), 1));
@@ -212,40 +264,61 @@ public class MasterTetrisFrame extends JFrame {
         infoPanel.add(settingsPanel, BorderLayout.SOUTH);
 
         add(holdContainer, BorderLayout.WEST);
-        add(boardPanel, BorderLayout.CENTER);
+        add(new JScrollPane(boardPanel), BorderLayout.CENTER);
         add(infoPanel, BorderLayout.EAST);
         add(menuPanel, BorderLayout.SOUTH);
 
         setIconImage(new ImageIcon(ImageFile.GAME_ICON.getUrl()).getImage());
         setTitle("Tetris");
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                saveBeforeExit();
+            }
+        });
+
+        resumeSavedGame();
 
         pack();
         setLocationRelativeTo(null);
     }
 
     private void onStart() {
-        game.reset();
-
-        if (clearTask != null && !clearTask.isDone()) {
-            clearTask.cancel(true);
+        gameTasks.cancelAll();
+        replayPlayer = null;
+        savedState = null;
+        soundtrackWanted = true;
+
+        // A replay may have left the game on a different difficulty, game mode or board size than the one selected
+        setBoardSize(settingsPanel.getSelectedBoardSize());
+        synchronized (game) {
+            game.setDifficulty(settingsPanel.getSelectedDifficulty());
+            game.setGameMode(settingsPanel.getSelectedGameMode());
+            game.reset();
+            replayRecorder.begin();
         }
+        gameLoop.start();
+        gameInProgress = true;
+        autosaveTimer.start();
 
-        if (flashLabelTask != null && !flashLabelTask.isDone()) {
-            flashLabelTask.cancel(true);
-        }
+        cancelEffects();
 
         settingsPanel.difficultyComboBox.setEnabled(false);
         settingsPanel.gameModeComboBox.setEnabled(false);
+        settingsPanel.boardSizeComboBox.setEnabled(false);
         settingsPanel.ghostSquaresCheckbox.setEnabled(false);
         settingsPanel.soundtrackCheckbox.setEnabled(false);
         settingsPanel.soundEffectsCheckbox.setEnabled(false);
+        settingsPanel.dasSpinner.setEnabled(false);
+        settingsPanel.arrSpinner.setEnabled(false);
 
         menuPanel.startButton.setEnabled(false);
         menuPanel.pauseButton.setEnabled(true);
         menuPanel.resumeButton.setEnabled(false);
         menuPanel.giveUpButton.setEnabled(true);
         menuPanel.leaderboardButton.setEnabled(false);
+        menuPanel.replayButton.setEnabled(false);
 
         boardPanel.enableKeyHandler();
 
@@ -257,16 +330,371 @@ public class MasterTetrisFrame extends JFrame {
         scorePanel.totalLinesLabel.repaint();
     }
 
+    /**
+     * Loads the most recent replay in the background, then plays it. Starting a game while it's loading cancels it
+     */
+    private void onWatchReplay() {
+        gameTasks.cancelAll();
+        menuPanel.replayButton.setEnabled(false);
+
+        gameTasks.callIo(ReplayRepository::loadLatest).whenCompleteAsync((replay, error) -> {
+            if (error instanceof CancellationException) {
+                return;
+            }
+
+            if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(null, "Could not load replay: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                menuPanel.replayButton.setEnabled(true);
+            } else if (replay.isEmpty()) {
+                JOptionPane.showMessageDialog(null, "No games have been recorded yet");
+                menuPanel.replayButton.setEnabled(true);
+            } else {
+                watchReplay(replay.get());
+            }
+        }, EventQueue::invokeLater);
+    }
+
+    private void watchReplay(Replay replay) {
+        // Effects still running on the current board are cancelled before the replay can swap in a board of its own size
+        cancelEffects();
+        soundtrackWanted = true;
+        replayPlayer = new ReplayPlayer(replay, game);
+        synchronized (game) {
+            replayPlayer.start();
+        }
+        fitBoardPanel();
+        replayDriver.start();
+
+        settingsPanel.difficultyComboBox.setEnabled(false);
+        settingsPanel.gameModeComboBox.setEnabled(false);
+        settingsPanel.boardSizeComboBox.setEnabled(false);
+        settingsPanel.ghostSquaresCheckbox.setEnabled(false);
+        settingsPanel.soundtrackCheckbox.setEnabled(false);
+        settingsPanel.soundEffectsCheckbox.setEnabled(false);
+        settingsPanel.dasSpinner.setEnabled(false);
+        settingsPanel.arrSpinner.setEnabled(false);
+
+        menuPanel.startButton.setEnabled(false);
+        menuPanel.pauseButton.setEnabled(false);
+        menuPanel.resumeButton.setEnabled(false);
+        menuPanel.giveUpButton.setEnabled(true);
+        menuPanel.leaderboardButton.setEnabled(false);
+        menuPanel.replayButton.setEnabled(false);
+
+        holdPanel.repaint();
+
+        scorePanel.levelLabel.setVisible(game.getGameMode() != GameMode.FREE_PLAY);
+        scorePanel.timeProgressBar.setVisible(game.getGameMode() == GameMode.TIME_ATTACK);
+        scorePanel.linesClearedProgressBar.setVisible(game.getGameMode() != GameMode.FREE_PLAY);
+        scorePanel.totalLinesLabel.repaint();
+    }
+
+    private void advanceReplay(long elapsedMillis) {
+        synchronized (game) {
+            replayPlayer.advance(elapsedMillis);
+        }
+
+        // A replay of a game that was lost or won wraps up through the usual game events. One that was abandoned just
+        // runs out of inputs, so wrap it up here as if the player had given up
+        if (replayPlayer.isFinished() && replayDriver.isRunning()) {
+            onGameOver();
+        }
+    }
+
+    /**
+     * Looks up the finished game's leaderboard rank in the background, then shows it in the score results window.
+     * Starting another game before the lookup is done cancels it
+     */
+    private void showScoreResults() {
+        int score = game.getScore();
+        Difficulty difficulty = game.getDifficulty();
+        GameMode gameMode = game.getGameMode();
+        LocalDateTime scoreDate = LocalDateTime.now();
+
+        gameTasks.callIo(() -> ScoreRepository.determineRank(score, difficulty, gameMode, scoreDate)).whenCompleteAsync((rank, error) -> {
+            if (error instanceof CancellationException) {
+                return;
+            }
+
+            if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(null, "Could not determine rank: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                menuPanel.leaderboardButton.disableWhileShown(new ScoreResultsFrame(game, menuPanel, rank, scoreDate));
+            }
+        }, EventQueue::invokeLater);
+    }
+
+    private void saveReplay() {
+        if (!replayRecorder.isRecording()) {
+            return;
+        }
+
+        Replay replay = replayRecorder.finish();
+        Tasks.runIo(() -> {
+            try {
+                ReplayRepository.save(replay);
+            } catch (IOException e) {
+                System.err.println("Could not save replay file");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Picks up the game that was in progress when the window was last closed, if there was one. It comes back paused so
+     * the player can resume when they're ready. Since the replay recorder only has the inputs from the start of a game,
+     * a resumed game isn't recorded
+     */
+    private void resumeSavedGame() {
+        Optional<GameSnapshot> savedGame;
+        try {
+            savedGame = SaveGameRepository.load();
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Could not load saved game: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        if (savedGame.isEmpty()) {
+            return;
+        }
+
+        game.restore(savedGame.get());
+        game.pause();
+        fitBoardPanel();
+        gameInProgress = true;
+        autosaveTimer.start();
+
+        settingsPanel.difficultyComboBox.setEnabled(false);
+        settingsPanel.gameModeComboBox.setEnabled(false);
+        settingsPanel.boardSizeComboBox.setEnabled(false);
+
+        menuPanel.startButton.setEnabled(false);
+        menuPanel.pauseButton.setEnabled(false);
+        menuPanel.resumeButton.setEnabled(true);
+        menuPanel.giveUpButton.setEnabled(true);
+        menuPanel.leaderboardButton.setEnabled(true);
+        menuPanel.replayButton.setEnabled(false);
+
+        scorePanel.levelLabel.setText("Level: " + game.getLevel());
+        scorePanel.levelLabel.setVisible(game.getGameMode() != GameMode.FREE_PLAY);
+        scorePanel.timeProgressBar.setVisible(game.getGameMode() == GameMode.TIME_ATTACK);
+        scorePanel.linesClearedProgressBar.setVisible(game.getGameMode() != GameMode.FREE_PLAY);
+    }
+
+    /**
+     * Saves the game in progress every few seconds while it's being played, so little is lost if the game is killed
+     * rather than closed
+     */
+    private void autosave() {
+        if (game.isRunning()) {
+            saveGame();
+        }
+    }
+
+    private Future<?> saveGame() {
+        if (!gameInProgress) {
+            return null;
+        }
+
+        // Snapshots are immutable, so this one can be written out on another thread while the game carries on
+        GameSnapshot snapshot;
+        synchronized (game) {
+            snapshot = game.snapshot();
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                SaveGameRepository.save(snapshot);
+            } catch (IOException e) {
+                System.err.println("Could not save game");
+                e.printStackTrace();
+            }
+        }, SAVE_EXECUTOR);
+    }
+
+    private void saveBeforeExit() {
+        Future<?> saveTask = saveGame();
+        if (saveTask == null) {
+            return;
+        }
+
+        try {
+            saveTask.get(CLOSE_SAVE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("Could not save game before exiting");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Once a game is won or lost there's nothing left to resume, so its save is removed
+     */
+    private void endGameInProgress() {
+        if (!gameInProgress) {
+            return;
+        }
+
+        gameInProgress = false;
+        autosaveTimer.stop();
+        SAVE_EXECUTOR.execute(() -> {
+            try {
+                SaveGameRepository.delete();
+            } catch (IOException e) {
+                System.err.println("Could not delete saved game");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Schedules the board for repainting after the active tetronimo moved or locked. The next and hold panels only
+     * change when a different tetronimo becomes active, through spawning, holding or releasing the hold
+     */
+    private void onBoardChanged() {
+        repaintScheduler.markDirty(boardPanel);
+
+        Tetronimo activeTetronimo = game.getActiveTetronimo();
+        if (activeTetronimo != previewedTetronimo) {
+            previewedTetronimo = activeTetronimo;
+            repaintScheduler.markDirty(nextTetronimoPanel, holdPanel);
+        }
+    }
+
+    /**
+     * Runs on the background event thread. Pausing or ending the game clears {@link #soundtrackWanted} before stopping
+     * the soundtrack, and the audio system's soundtrack methods all lock it. So a pause either comes first and is seen
+     * here, or waits for this to finish and then stops the soundtrack it started
+     */
+    private void startSoundtrack(int level) {
+        synchronized (audioSystem) {
+            if (soundtrackWanted) {
+                audioSystem.startSoundtrack(level);
+            }
+        }
+    }
+
+    /**
+     * Switches the game to an empty board of the given size and resizes the window around it. Any clear effect still
+     * running on the old board is cancelled first
+     */
+    private void setBoardSize(BoardSize boardSize) {
+        if (boardSize.equals(game.getBoardSize())) {
+            return;
+        }
+
+        cancelEffects();
+        synchronized (game) {
+            game.setBoardSize(boardSize);
+        }
+        fitBoardPanel();
+    }
+
+    private void fitBoardPanel() {
+        if (boardPanel.fitToBoard()) {
+            pack();
+        }
+    }
+
+    /**
+     * Plays the sound for an input the game loop has just applied. Sounds are started from a background task so the
+     * game loop never waits on the audio system
+     */
+    private void onInputApplied(GameInput input, boolean changed) {
+        Runnable sound = switch (input) {
+            case SUPER_SLIDE_LEFT, SUPER_SLIDE_RIGHT -> audioSystem::playSuperSlideSound;
+            case ROTATE_CLOCKWISE -> changed ? audioSystem::playClockwiseRotationSound : null;
+            case ROTATE_COUNTER_CLOCKWISE -> changed ? audioSystem::playCounterClockwiseRotationSound : null;
+            case HOLD -> changed ? audioSystem::playHoldSound : null;
+            case RELEASE_HOLD -> changed ? audioSystem::playReleaseSound : null;
+            case HARD_DROP -> audioSystem::playTetronimoPlacementSound;
+            case MOVE_LEFT, MOVE_RIGHT, MOVE_DOWN -> null;
+        };
+
+        if (sound != null) {
+            Tasks.runIo(sound::run);
+        }
+    }
+
+    /**
+     * Handles the practice keys of free play: backspace rewinds to the start of the previous placement, F5 saves the
+     * current position and F9 loads it again. They do nothing in the other game modes, where they'd make a mockery of
+     * the score, or while a replay is playing
+     *
+     * @return True if the key was a practice key
+     */
+    private boolean onPracticeKey(int keyCode) {
+        if (keyCode != KeyEvent.VK_BACK_SPACE && keyCode != KeyEvent.VK_F5 && keyCode != KeyEvent.VK_F9) {
+            return false;
+        }
+        if (game.getGameMode() != GameMode.FREE_PLAY || replayPlayer != null) {
+            return true;
+        }
+
+        boolean restored;
+        synchronized (game) {
+            switch (keyCode) {
+                case KeyEvent.VK_BACK_SPACE -> restored = rewindHistory.rewind(game);
+                case KeyEvent.VK_F5 -> {
+                    savedState = game.snapshot();
+                    restored = false;
+                }
+                default -> {
+                    restored = savedState != null;
+                    if (restored) {
+                        // Rewinding from a loaded position goes back through the placements made since it was loaded
+                        game.restore(savedState);
+                        rewindHistory.clear();
+                        rewindHistory.record(game);
+                    }
+                }
+            }
+
+            if (restored) {
+                // The inputs recorded so far no longer lead to the game's state
+                replayRecorder.abandon();
+            }
+        }
+
+        if (restored) {
+            onGameRestored();
+        }
+        return true;
+    }
+
+    /**
+     * Refreshes everything showing the game after it's been put back into an earlier state, which publishes no events
+     */
+    private void onGameRestored() {
+        keyHandler.releaseAll();
+        previewedTetronimo = null;
+        scorePanel.levelLabel.setText("Level: " + game.getLevel());
+        repaintScheduler.markDirty(boardPanel, nextTetronimoPanel, holdPanel, scorePanel.scoreLabel,
+                scorePanel.totalLinesLabel, scorePanel.timeLabel, scorePanel.timeProgressBar,
+                scorePanel.linesClearedProgressBar);
+    }
+
+    private void cancelEffects() {
+        repaintScheduler.cancelAnimations();
+    }
+
     private void onPause() {
-        game.getFallTimer().stop();
-        game.getGameTimer().stop();
+        gameLoop.stop();
+        game.pause();
+        saveGame();
+        soundtrackWanted = false;
 
         settingsPanel.ghostSquaresCheckbox.setEnabled(true);
         settingsPanel.soundtrackCheckbox.setEnabled(true);
         settingsPanel.soundEffectsCheckbox.setEnabled(true);
+        settingsPanel.dasSpinner.setEnabled(true);
+        settingsPanel.arrSpinner.setEnabled(true);
 
-        audioSystem.stopCurrentSoundtrack();
-        audioSystem.playPauseSound();
+        SOUNDTRACK_EXECUTOR.execute(() -> {
+            audioSystem.stopCurrentSoundtrack();
+            audioSystem.playPauseSound();
+        });
 
         boardPanel.disableKeyHandler();
 
@@ -274,17 +702,21 @@ public class MasterTetrisFrame extends JFrame {
         menuPanel.pauseButton.setEnabled(false);
         menuPanel.giveUpButton.setEnabled(true);
         menuPanel.leaderboardButton.setEnabled(true);
+        menuPanel.replayButton.setEnabled(false);
     }
 
     private void onResume() {
-        game.getFallTimer().start();
-        game.getGameTimer().start();
+        game.resume();
+        soundtrackWanted = true;
+        gameLoop.start();
 
         settingsPanel.ghostSquaresCheckbox.setEnabled(false);
         settingsPanel.soundtrackCheckbox.setEnabled(false);
         settingsPanel.soundEffectsCheckbox.setEnabled(false);
+        settingsPanel.dasSpinner.setEnabled(false);
+        settingsPanel.arrSpinner.setEnabled(false);
 
-        audioSystem.resumeCurrentSoundtrack();
+        SOUNDTRACK_EXECUTOR.execute(audioSystem::resumeCurrentSoundtrack);
 
         boardPanel.enableKeyHandler();
 
@@ -295,44 +727,67 @@ public class MasterTetrisFrame extends JFrame {
     }
 
     private void onWin() {
+        gameLoop.stop();
+        replayDriver.stop();
+        saveReplay();
+        endGameInProgress();
+        soundtrackWanted = false;
+
         settingsPanel.difficultyComboBox.setEnabled(true);
         settingsPanel.gameModeComboBox.setEnabled(true);
+        settingsPanel.boardSizeComboBox.setEnabled(true);
         settingsPanel.ghostSquaresCheckbox.setEnabled(true);
         settingsPanel.soundtrackCheckbox.setEnabled(true);
         settingsPanel.soundEffectsCheckbox.setEnabled(true);
+        settingsPanel.dasSpinner.setEnabled(true);
+        settingsPanel.arrSpinner.setEnabled(true);
 
         menuPanel.startButton.setEnabled(true);
         menuPanel.pauseButton.setEnabled(false);
         menuPanel.resumeButton.setEnabled(false);
         menuPanel.giveUpButton.setEnabled(false);
         menuPanel.leaderboardButton.setEnabled(true);
+        menuPanel.replayButton.setEnabled(true);
 
-        audioSystem.stopCurrentSoundtrack();
-        audioSystem.playVictoryFanfare();
+        SOUNDTRACK_EXECUTOR.execute(() -> {
+            audioSystem.stopCurrentSoundtrack();
+            audioSystem.playVictoryFanfare();
+        });
 
         boardPanel.disableKeyHandler();
-        clearTask = THREAD_POOL.submit(boardPanel::jumpClear);
+        boolean showScoreResults = replayPlayer == null;
+        repaintScheduler.play(boardPanel.jumpClear(showScoreResults));
         scorePanel.levelLabel.setText("You Win!!!");
-        flashLabelTask = THREAD_POOL.submit(() -> scorePanel.levelLabel.flash(Color.YELLOW));
+        repaintScheduler.play(scorePanel.levelLabel.flash(Color.YELLOW));
     }
 
     private void onGameOver() {
-        game.getFallTimer().stop();
-        game.getGameTimer().stop();
-
-        audioSystem.stopCurrentSoundtrack();
-        audioSystem.playGameOverSound();
+        gameLoop.stop();
+        replayDriver.stop();
+        game.pause();
+        saveReplay();
+        endGameInProgress();
+        soundtrackWanted = false;
+
+        SOUNDTRACK_EXECUTOR.execute(() -> {
+            audioSystem.stopCurrentSoundtrack();
+            audioSystem.playGameOverSound();
+        });
 
         menuPanel.startButton.setEnabled(true);
         menuPanel.pauseButton.setEnabled(false);
         menuPanel.resumeButton.setEnabled(false);
         menuPanel.giveUpButton.setEnabled(false);
         menuPanel.leaderboardButton.setEnabled(true);
+        menuPanel.replayButton.setEnabled(true);
 
         settingsPanel.ghostSquaresCheckbox.setEnabled(true);
         settingsPanel.soundtrackCheckbox.setEnabled(true);
         settingsPanel.soundEffectsCheckbox.setEnabled(true);
+        settingsPanel.dasSpinner.setEnabled(true);
+        settingsPanel.arrSpinner.setEnabled(true);
         settingsPanel.gameModeComboBox.setEnabled(true);
+        settingsPanel.boardSizeComboBox.setEnabled(true);
         settingsPanel.difficultyComboBox.setEnabled(true);
 
         boardPanel.disableKeyHandler();
@@ -340,132 +795,248 @@ public class MasterTetrisFrame extends JFrame {
         scorePanel.levelLabel.setVisible(true); // explicitly set visible in case it's hidden due to free play mode
         scorePanel.levelLabel.setText("Game Over!!!");
 
-        flashLabelTask = THREAD_POOL.submit(() -> scorePanel.levelLabel.flash(Color.RED));
-        clearTask = THREAD_POOL.submit(boardPanel::spiralClear);
+        repaintScheduler.play(scorePanel.levelLabel.flash(Color.RED));
+        boolean showScoreResults = replayPlayer == null;
+        repaintScheduler.play(boardPanel.spiralClear(showScoreResults));
     }
 
-    private class BoardPanel extends ColorGrid {
-        private static final int SPIRAL_SLEEP_INTERVAL = 6;
-        private static final int CLEAR_SLEEP_INTERVAL = 79;
+    /**
+     * Displays the game board. Boards too big to fit on screen at a readable square size are shown at a smaller square
+     * size inside a scroll pane, which keeps the active tetronimo in view as it falls
+     */
+    private class BoardPanel extends GameBoardGrid implements Scrollable {
+        private static final int SPIRAL_KEYFRAME_INTERVAL = 6;
+        private static final int CLEAR_KEYFRAME_INTERVAL = 79;
         private static final int BOARD_PANEL_SQUARE_DIMENSION = 40;
+        private static final int MIN_SQUARE_DIMENSION = 8;
+        private static final int MAX_VIEWPORT_WIDTH = 1000;
+        private static final int MAX_VIEWPORT_HEIGHT = BoardSize.CLASSIC.rows() * BOARD_PANEL_SQUARE_DIMENSION;
+        private static final int CLASSIC_SQUARE_COUNT = BoardSize.CLASSIC.rows() * BoardSize.CLASSIC.columns();
+        private static final int FOLLOW_MARGIN_ROWS = 4;
+
+        private BoardSize displayedBoardSize;
+        private int squareDimension;
 
         BoardPanel() {
-            super(TetrisGame.VERTICAL_DIMENSION - TetrisGame.LEADING_OVERFLOW_ROWS, TetrisGame.HORIZONTAL_DIMENSION, BOARD_PANEL_SQUARE_DIMENSION);
+            super(game, BOARD_PANEL_SQUARE_DIMENSION);
             setFocusable(true);
             setBorder(BorderFactory.createLineBorder(Color.GRAY, 1));
+            fitToBoard();
         }
 
-        void enableKeyHandler() {
-            addKeyListener(keyHandler);
+        /**
+         * Resizes this panel if the game's board size has changed since it was last fitted
+         *
+         * @return True if the panel was resized
+         */
+        boolean fitToBoard() {
+            BoardSize boardSize = game.getBoardSize();
+            if (boardSize.equals(displayedBoardSize)) {
+                return false;
+            }
+
+            displayedBoardSize = boardSize;
+            squareDimension = Math.max(MIN_SQUARE_DIMENSION, Math.min(BOARD_PANEL_SQUARE_DIMENSION,
+                    Math.min(MAX_VIEWPORT_WIDTH / boardSize.columns(), MAX_VIEWPORT_HEIGHT / boardSize.rows())));
+            setCellDimension(squareDimension);
+            revalidate();
+            scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+            return true;
         }
 
-        void disableKeyHandler() {
-            removeKeyListener(keyHandler);
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+
+            if (unpaintedInputNanos != 0) {
+                INPUT_TO_PAINT.recordSince(unpaintedInputNanos);
+                unpaintedInputNanos = 0;
+            }
         }
 
-        @SuppressWarnings("DataFlowIssue")
-        void spiralClear() {
-            try {
-                game.persistActiveTetronimoColors();
-                game.clearActiveTetronimo();
+        /**
+         * Scrolls the active tetronimo into view, if this panel is scrolled at all
+         */
+        void followActiveTetronimo() {
+            Tetronimo active = game.getActiveTetronimo();
+            if (active == null) {
+                return;
+            }
 
-                List<ColoredSquare> spiralSquares = new ArrayList<>();
+            int visibleRow = active.getRow() - TetrisGame.LEADING_OVERFLOW_ROWS;
+            Rectangle visible = getVisibleRect();
+            scrollRectToVisible(new Rectangle(visible.x, (visibleRow - FOLLOW_MARGIN_ROWS) * getUnitHeight(),
+                    1, (2 * FOLLOW_MARGIN_ROWS + 1) * getUnitHeight()));
+        }
 
-                int nextLeftCol = 0,
-                        nextRightCol = TetrisGame.HORIZONTAL_DIMENSION - 1,
-                        nextTopRow = TetrisGame.LEADING_OVERFLOW_ROWS,
-                        nextBottomRow = TetrisGame.VERTICAL_DIMENSION - 1;
+        /**
+         * @return How many squares the clear effects fill or erase per frame, so they take about as long on a large
+         * board as on a classic one
+         */
+        private int squaresPerFrame(int squareCount) {
+            return Math.max(1, squareCount / CLASSIC_SQUARE_COUNT);
+        }
 
-                int maxSquares = (TetrisGame.VERTICAL_DIMENSION - TetrisGame.LEADING_OVERFLOW_ROWS) * TetrisGame.HORIZONTAL_DIMENSION;
+        @Override
+        public Dimension getPreferredScrollableViewportSize() {
+            Dimension preferred = getPreferredSize();
+            return new Dimension(Math.min(preferred.width, MAX_VIEWPORT_WIDTH), Math.min(preferred.height, MAX_VIEWPORT_HEIGHT));
+        }
 
-                while (spiralSquares.size() < maxSquares) {
-                    // All cells in the next leftmost column
-                    for (int row = nextTopRow; row <= nextBottomRow; row++) {
-                        spiralSquares.add(new ColoredSquare(TetronimoType.getRandomColor(), row, nextLeftCol));
-                    }
-                    nextLeftCol++;
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return squareDimension;
+        }
 
-                    // All cells in the next bottom row
-                    for (int col = nextLeftCol; col <= nextRightCol; col++) {
-                        spiralSquares.add(new ColoredSquare(TetronimoType.getRandomColor(), nextBottomRow, col));
-                    }
-                    nextBottomRow--;
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        }
 
-                    // All cells in the next rightmost column
-                    for (int row = nextBottomRow; row >= nextTopRow; row--) {
-                        spiralSquares.add(new ColoredSquare(TetronimoType.getRandomColor(), row, nextRightCol));
-                    }
-                    nextRightCol--;
+        @Override
+        public boolean getScrollableTracksViewportWidth() {
+            return false;
+        }
 
-                    // All cells in the next top row
-                    for (int col = nextRightCol; col >= nextLeftCol; col--) {
-                        spiralSquares.add(new ColoredSquare(TetronimoType.getRandomColor(), nextTopRow, col));
-                    }
-                    nextTopRow++;
+        @Override
+        public boolean getScrollableTracksViewportHeight() {
+            return false;
+        }
+
+        void enableKeyHandler() {
+            addKeyListener(keyHandler);
+        }
+
+        void disableKeyHandler() {
+            removeKeyListener(keyHandler);
+            keyHandler.releaseAll();
+        }
+
+        /**
+         * @return Animation that fills the board's empty squares in a spiral from the outside in, then erases every
+         * square along the same spiral
+         */
+        Animation spiralClear(boolean showScoreResults) {
+            List<ColoredSquare> spiralSquares = new ArrayList<>();
+            RandomGenerator random = ThreadLocalRandom.current();
+
+            BoardSize boardSize = game.getBoardSize();
+            int nextLeftCol = 0,
+                    nextRightCol = boardSize.columns() - 1,
+                    nextTopRow = TetrisGame.LEADING_OVERFLOW_ROWS,
+                    nextBottomRow = boardSize.totalRows() - 1;
+
+            int maxSquares = boardSize.rows() * boardSize.columns();
+            int squaresPerFrame = squaresPerFrame(maxSquares);
+
+            while (spiralSquares.size() < maxSquares) {
+                // All cells in the next leftmost column
+                for (int row = nextTopRow; row <= nextBottomRow; row++) {
+                    spiralSquares.add(new ColoredSquare(TetronimoType.getRandomColor(random), row, nextLeftCol));
                 }
+                nextLeftCol++;
 
-                // Run 1 loop to paint in all unoccupied squares
-                for (ColoredSquare spiralSquare : spiralSquares) {
-                    if (game.isOpenAndInBounds(spiralSquare.row(), spiralSquare.column())) {
-                        game.setColor(spiralSquare.row(), spiralSquare.column(), spiralSquare.color());
-                    }
-                    repaint();
-                    Thread.sleep(SPIRAL_SLEEP_INTERVAL);
+                // All cells in the next bottom row
+                for (int col = nextLeftCol; col <= nextRightCol; col++) {
+                    spiralSquares.add(new ColoredSquare(TetronimoType.getRandomColor(random), nextBottomRow, col));
+                }
+                nextBottomRow--;
+
+                // All cells in the next rightmost column
+                for (int row = nextBottomRow; row >= nextTopRow; row--) {
+                    spiralSquares.add(new ColoredSquare(TetronimoType.getRandomColor(random), row, nextRightCol));
                 }
+                nextRightCol--;
 
-                // Run a second loop to erase all of them
-                for (ColoredSquare spiralSquare : spiralSquares) {
-                    game.clearSquare(spiralSquare.row(), spiralSquare.column());
-                    repaint();
-                    Thread.sleep(SPIRAL_SLEEP_INTERVAL);
+                // All cells in the next top row
+                for (int col = nextRightCol; col >= nextLeftCol; col--) {
+                    spiralSquares.add(new ColoredSquare(TetronimoType.getRandomColor(random), nextTopRow, col));
                 }
+                nextTopRow++;
+            }
 
-                menuPanel.leaderboardButton.disableWhileShown(new ScoreResultsFrame(game, menuPanel));
-            } catch (InterruptedException e) {
-                // Will happen if new game is started before spiral clear is finished
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+            synchronized (game) {
+                game.persistActiveTetronimoColors();
+                game.clearActiveTetronimo();
             }
-        }
 
-        void jumpClear() {
-            try {
-                // Fill all rows bottom to top
-                for (int row = TetrisGame.VERTICAL_DIMENSION - 1; row >= TetrisGame.LEADING_OVERFLOW_ROWS; row--) {
-                    for (int col = 0; col < TetrisGame.HORIZONTAL_DIMENSION; col++) {
-                        if (game.isOpenAndInBounds(row, col)) {
-                            game.setColor(row, col, TetronimoType.getRandomColor());
+            int chunks = (spiralSquares.size() + squaresPerFrame - 1) / squaresPerFrame;
+            return new Animation(2 * chunks, SPIRAL_KEYFRAME_INTERVAL) {
+                @Override
+                protected void keyframe(int index) {
+                    // The first half paints in all unoccupied squares and the second half erases all of them
+                    boolean erasing = index >= chunks;
+                    int from = (index % chunks) * squaresPerFrame;
+                    int to = Math.min(from + squaresPerFrame, spiralSquares.size());
+
+                    synchronized (game) {
+                        for (int i = from; i < to; i++) {
+                            ColoredSquare spiralSquare = spiralSquares.get(i);
+                            if (erasing) {
+                                game.clearSquare(spiralSquare.row(), spiralSquare.column());
+                            } else if (game.isOpenAndInBounds(spiralSquare.row(), spiralSquare.column())) {
+                                game.setColor(spiralSquare.row(), spiralSquare.column(), spiralSquare.color());
+                            }
                         }
                     }
-                    repaint();
-                    Thread.sleep(CLEAR_SLEEP_INTERVAL);
+                    repaintScheduler.markDirty(BoardPanel.this);
                 }
 
-                // Clear all rows top to bottom.
-                for (int row = TetrisGame.LEADING_OVERFLOW_ROWS; row < TetrisGame.VERTICAL_DIMENSION; row++) {
-                    for (int col = 0; col < TetrisGame.HORIZONTAL_DIMENSION; col++) {
-                        game.clearSquare(row, col);
+                @Override
+                protected void finished() {
+                    if (showScoreResults) {
+                        showScoreResults();
                     }
-                    repaint();
-                    Thread.sleep(CLEAR_SLEEP_INTERVAL);
                 }
-
-                menuPanel.leaderboardButton.disableWhileShown(new ScoreResultsFrame(game, menuPanel));
-            } catch (InterruptedException e) {
-                // Will happen if we start a new game before task is done
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+            };
         }
 
-        @Override
-        public Collection<ColoredSquare> getCurrentColors() {
-            return game.getColoredSquares();
-        }
+        /**
+         * @return Animation that fills the board's empty squares row by row from the bottom up, then erases every row
+         * from the top down
+         */
+        Animation jumpClear(boolean showScoreResults) {
+            RandomGenerator random = ThreadLocalRandom.current();
+            BoardSize boardSize = game.getBoardSize();
+            int rowsPerFrame = Math.max(1, boardSize.rows() / BoardSize.CLASSIC.rows());
+            int chunks = (boardSize.rows() + rowsPerFrame - 1) / rowsPerFrame;
+
+            return new Animation(2 * chunks, CLEAR_KEYFRAME_INTERVAL) {
+                @Override
+                protected void keyframe(int index) {
+                    boolean clearing = index >= chunks;
+                    int from = (index % chunks) * rowsPerFrame;
+                    int to = Math.min(from + rowsPerFrame, boardSize.rows());
+
+                    synchronized (game) {
+                        for (int i = from; i < to; i++) {
+                            if (clearing) {
+                                // Clear rows top to bottom
+                                int row = TetrisGame.LEADING_OVERFLOW_ROWS + i;
+                                for (int col = 0; col < boardSize.columns(); col++) {
+                                    game.clearSquare(row, col);
+                                }
+                            } else {
+                                // Fill rows bottom to top
+                                int row = boardSize.totalRows() - 1 - i;
+                                for (int col = 0; col < boardSize.columns(); col++) {
+                                    if (game.isOpenAndInBounds(row, col)) {
+                                        game.setColor(row, col, TetronimoType.getRandomColor(random));
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    repaintScheduler.markDirty(BoardPanel.this);
+                }
 
-        @Override
-        protected int getYCoordinate(ColoredSquare square) {
-            return (square.row() - TetrisGame.LEADING_OVERFLOW_ROWS) * getUnitHeight();
+                @Override
+                protected void finished() {
+                    if (showScoreResults) {
+                        showScoreResults();
+                    }
+                }
+            };
         }
     }
 
@@ -572,6 +1143,9 @@ public class MasterTetrisFrame extends JFrame {
         private final JCheckBox soundEffectsCheckbox;
         private final JComboBox<GameMode> gameModeComboBox;
         private final JComboBox<Difficulty> difficultyComboBox;
+        private final JComboBox<BoardSize> boardSizeComboBox;
+        private final JSpinner dasSpinner;
+        private final JSpinner arrSpinner;
 
         SettingsPanel() {
             settings = SettingsRepository.load().orElseGet(Settings::new);
@@ -670,6 +1244,48 @@ public class MasterTetrisFrame extends JFrame {
             );
             game.setGameMode(settings.gameMode);
 
+            boardSizeComboBox = new JComboBox<>(BoardSize.PRESETS.toArray(BoardSize[]::new));
+            if (!BoardSize.PRESETS.contains(settings.boardSize)) {
+                boardSizeComboBox.addItem(settings.boardSize);
+            }
+            boardSizeComboBox.setSelectedItem(settings.boardSize);
+            boardSizeComboBox.addActionListener(e -> {
+                var boardSize = getSelectedBoardSize();
+                setBoardSize(boardSize);
+                settings.boardSize = boardSize;
+                SettingsRepository.save(settings);
+            });
+            boardSizeComboBox.setToolTipText(
+                "<html>" +
+                    "<p>Sets the width and height of the board, in squares. The classic board is " + BoardSize.CLASSIC + "</p>" +
+                    "<p>Boards too large for the screen are drawn with smaller squares and can be scrolled</p>" +
+                "</html>"
+            );
+            game.setBoardSize(settings.boardSize);
+            boardPanel.fitToBoard();
+
+            dasSpinner = new JSpinner(new SpinnerNumberModel(settings.dasMillis, 0, InputController.MAX_DELAY_MILLIS, 10));
+            dasSpinner.setToolTipText("Delayed auto shift: how long, in milliseconds, left, right or down is held before it starts repeating");
+            dasSpinner.addChangeListener(e -> {
+                settings.dasMillis = (int) dasSpinner.getValue();
+                inputController.setAutoRepeat(settings.dasMillis, settings.arrMillis);
+                SettingsRepository.save(settings);
+            });
+
+            arrSpinner = new JSpinner(new SpinnerNumberModel(settings.arrMillis, 0, InputController.MAX_DELAY_MILLIS, 5));
+            arrSpinner.setToolTipText(
+                "<html>" +
+                    "<p>Auto repeat rate: milliseconds between each repeated move once left, right or down is repeating</p>" +
+                    "<p>At 0, held tetronimos slide all the way to the wall as soon as they start repeating</p>" +
+                "</html>"
+            );
+            arrSpinner.addChangeListener(e -> {
+                settings.arrMillis = (int) arrSpinner.getValue();
+                inputController.setAutoRepeat(settings.dasMillis, settings.arrMillis);
+                SettingsRepository.save(settings);
+            });
+            inputController.setAutoRepeat(settings.dasMillis, settings.arrMillis);
+
             setBorder(new TitledBorder("Settings"));
             setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
 
@@ -694,6 +1310,25 @@ public class MasterTetrisFrame extends JFrame {
             difficultyPanel.setAlignmentX(JPanel.LEFT_ALIGNMENT);
             difficultyPanel.add(difficultyComboBox);
             add(difficultyPanel);
+
+            add(Box.createRigidArea(new Dimension(0, 5)));
+
+            add(new JLabel("Board Size"));
+            var boardSizePanel = new JPanel();
+            boardSizePanel.setLayout(new BoxLayout(boardSizePanel, BoxLayout.X_AXIS));
+            boardSizePanel.setAlignmentX(JPanel.LEFT_ALIGNMENT);
+            boardSizePanel.add(boardSizeComboBox);
+            add(boardSizePanel);
+
+            add(Box.createRigidArea(new Dimension(0, 5)));
+
+            add(new JLabel("Auto Repeat (DAS / ARR ms)"));
+            var autoRepeatPanel = new JPanel();
+            autoRepeatPanel.setLayout(new BoxLayout(autoRepeatPanel, BoxLayout.X_AXIS));
+            autoRepeatPanel.setAlignmentX(JPanel.LEFT_ALIGNMENT);
+            autoRepeatPanel.add(dasSpinner);
+            autoRepeatPanel.add(arrSpinner);
+            add(autoRepeatPanel);
         }
 
         GameMode getSelectedGameMode() {
@@ -703,6 +1338,10 @@ public class MasterTetrisFrame extends JFrame {
         Difficulty getSelectedDifficulty() {
             return (Difficulty) difficultyComboBox.getSelectedItem();
         }
+
+        BoardSize getSelectedBoardSize() {
+            return (BoardSize) boardSizeComboBox.getSelectedItem();
+        }
     }
 
     class MenuPanel extends JPanel {
@@ -711,6 +1350,7 @@ public class MasterTetrisFrame extends JFrame {
         final TetrisButton resumeButton = new TetrisButton("Resume");
         final TetrisButton giveUpButton = new TetrisButton("Give Up");
         final TetrisButton leaderboardButton = new TetrisButton("Leaderboard");
+        final TetrisButton replayButton = new TetrisButton("Replay");
 
         private MenuPanel() {
             startButton.setMnemonic('s');
@@ -735,6 +1375,12 @@ public class MasterTetrisFrame extends JFrame {
             );
             add(leaderboardButton);
 
+            replayButton.setMnemonic('y');
+            replayButton.setEnabled(true);
+            replayButton.setToolTipText("Watch a replay of the last game played");
+            replayButton.addActionListener(e -> onWatchReplay());
+            add(replayButton);
+
             giveUpButton.setMnemonic('g');
             giveUpButton.setEnabled(false);
             giveUpButton.addActionListener(e -> onGameOver());
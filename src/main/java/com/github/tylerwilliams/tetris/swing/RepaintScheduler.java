@@ -0,0 +1,144 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the components that game events and input have changed, then repaints each of them once per display frame.
+ * A burst of key repeats or game events within one frame costs a single repaint of just the components they touched,
+ * rather than one full-frame repaint each. {@link ColorGrid}s are asked to {@link ColorGrid#repaintChanges repaint their
+ * changes}, which may be far less than the whole grid.
+ * <p>
+ * The same frame clock drives the {@link Timeline} of effect animations. Each frame applies the keyframes that have
+ * fallen due before it repaints, so whatever those keyframes mark dirty is painted in that same frame. Only to be used
+ * from the EDT.
+ */
+class RepaintScheduler {
+    private static final int FRAME_INTERVAL = 16; // ~60 frames per second
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Counter REPAINTS = Metrics.counter("repaints");
+
+    private final Timer frameTimer;
+    private final List<JComponent> dirtyComponents = new ArrayList<>();
+    private final Timeline timeline = new Timeline();
+
+    private long repaintRequests;
+    private long repaintsIssued;
+    private int lastFrameDirtyCount;
+    private int framesThisSecond;
+    private int framesPerSecond;
+    private long secondStart = System.nanoTime();
+
+    RepaintScheduler() {
+        this.frameTimer = new Timer(FRAME_INTERVAL, e -> paintFrame());
+    }
+
+    /**
+     * Schedules the component to be repainted at the end of the current frame. Marking it again before then is free
+     */
+    void markDirty(JComponent component) {
+        repaintRequests++;
+        for (JComponent dirtyComponent : dirtyComponents) {
+            if (dirtyComponent == component) {
+                return;
+            }
+        }
+
+        dirtyComponents.add(component);
+        startFrames();
+    }
+
+    void markDirty(JComponent... components) {
+        for (JComponent component : components) {
+            markDirty(component);
+        }
+    }
+
+    /**
+     * Starts playing the animation from the next frame
+     */
+    void play(Animation animation) {
+        timeline.play(animation, System.nanoTime());
+        startFrames();
+    }
+
+    /**
+     * Cancels every animation that's playing, such as when a new game starts before the last one's effects are over
+     */
+    void cancelAnimations() {
+        timeline.cancelAll();
+    }
+
+    private void startFrames() {
+        if (!frameTimer.isRunning()) {
+            frameTimer.start();
+        }
+    }
+
+    private void paintFrame() {
+        long now = System.nanoTime();
+        if (now - secondStart >= SECOND_NANOS) {
+            framesPerSecond = framesThisSecond;
+            framesThisSecond = 0;
+            secondStart = now;
+        }
+
+        timeline.advance(now);
+
+        // The timer keeps running while frames keep getting dirtied or animated, and stops after the first idle frame
+        if (dirtyComponents.isEmpty()) {
+            if (timeline.isIdle()) {
+                frameTimer.stop();
+            }
+            return;
+        }
+
+        for (JComponent component : dirtyComponents) {
+            if (component instanceof ColorGrid grid) {
+                grid.repaintChanges();
+            } else {
+                component.repaint();
+            }
+        }
+        repaintsIssued += dirtyComponents.size();
+        REPAINTS.add(dirtyComponents.size());
+        lastFrameDirtyCount = dirtyComponents.size();
+        framesThisSecond++;
+        dirtyComponents.clear();
+    }
+
+    /**
+     * @return Number of frames that repainted anything during the last full second, or 0 if nothing has been painted
+     * for longer than that
+     */
+    int getFramesPerSecond() {
+        return System.nanoTime() - secondStart > 2 * SECOND_NANOS ? 0 : framesPerSecond;
+    }
+
+    /**
+     * @return Number of components repainted by the most recent frame that painted anything
+     */
+    int getLastFrameDirtyCount() {
+        return lastFrameDirtyCount;
+    }
+
+    /**
+     * @return Total calls to {@link #markDirty}, including those for components already waiting to be repainted
+     */
+    long getRepaintRequests() {
+        return repaintRequests;
+    }
+
+    /**
+     * @return Total repaints actually issued. The difference from {@link #getRepaintRequests()} is what coalescing saved
+     */
+    long getRepaintsIssued() {
+        return repaintsIssued;
+    }
+}
@@ -1,12 +1,12 @@
 package com.github.tylerwilliams.tetris.swing;
 
 import com.github.tylerwilliams.tetris.*;
+import com.github.tylerwilliams.tetris.task.Tasks;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
@@ -15,14 +15,18 @@ class ScoreResultsFrame extends JFrame {
     private final static int NAME_LENGTH = 40;
 
     private final JTextField nameField = new JTextField(10);
+    private final TetrisButton saveScoreButton = new TetrisButton("Save");
     private final TetrisGame tetrisGame;
     private final MasterTetrisFrame.MenuPanel menuPanel;
     private final LocalDateTime scoreDate;
 
-    ScoreResultsFrame(TetrisGame tetrisGame, MasterTetrisFrame.MenuPanel menuPanel) {
+    /**
+     * @param rank Leaderboard rank of the game's score, which is read from disk so has to be looked up off the EDT
+     */
+    ScoreResultsFrame(TetrisGame tetrisGame, MasterTetrisFrame.MenuPanel menuPanel, int rank, LocalDateTime scoreDate) {
         this.tetrisGame = tetrisGame;
         this.menuPanel = menuPanel;
-        this.scoreDate = LocalDateTime.now();
+        this.scoreDate = scoreDate;
 
         setLayout(new GridLayout(3, 1));
 
@@ -34,15 +38,6 @@ class ScoreResultsFrame extends JFrame {
             }
         });
 
-        int rank;
-        try {
-            rank = ScoreRepository.determineRank(tetrisGame.getScore(), tetrisGame.getDifficulty(), tetrisGame.getGameMode(), this.scoreDate);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Could not determine rank: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
         JLabel scoreLabel = new JLabel();
         scoreLabel.setFont(MasterTetrisFrame.ARIAL_HEADER);
         scoreLabel.setHorizontalAlignment(JLabel.CENTER);
@@ -57,7 +52,6 @@ class ScoreResultsFrame extends JFrame {
             inputPanel.add(congratsLabel);
             inputPanel.add(nameField);
 
-            var saveScoreButton = new TetrisButton("Save");
             saveScoreButton.setMnemonic('s');
             saveScoreButton.addActionListener(e -> onSaveScoreClicked(rank));
 
@@ -89,36 +83,41 @@ class ScoreResultsFrame extends JFrame {
             return;
         }
 
-        try {
-            int totalLinesCleared = tetrisGame.getTotalLinesCleared();
-            Difficulty difficulty = tetrisGame.getDifficulty();
+        int totalLinesCleared = tetrisGame.getTotalLinesCleared();
+        Difficulty difficulty = tetrisGame.getDifficulty();
 
-            Boolean completedGame = null;
-            Integer maxLevel = null;
-            if (tetrisGame.getGameMode() != GameMode.FREE_PLAY) {
-                completedGame = totalLinesCleared == difficulty.getLinesPerLevel() * TetrisGame.MAX_LEVEL;
-                maxLevel = tetrisGame.getLevel();
-            }
+        Boolean completedGame = null;
+        Integer maxLevel = null;
+        if (tetrisGame.getGameMode() != GameMode.FREE_PLAY) {
+            completedGame = totalLinesCleared == difficulty.getLinesPerLevel() * TetrisGame.MAX_LEVEL;
+            maxLevel = tetrisGame.getLevel();
+        }
 
-            Score score = new Score(tetrisGame.getScore(),
-                                    tetrisGame.getTotalLinesCleared(),
-                                    rank,
-                                    maxLevel,
-                                    Duration.ofSeconds(tetrisGame.getGameTime()),
-                                    saveName,
-                                    tetrisGame.getDifficulty(),
-                                    tetrisGame.getGameMode(),
-                                    completedGame,
-                                    scoreDate);
-            ScoreRepository.saveScore(score);
+        Score score = new Score(tetrisGame.getScore(),
+                                tetrisGame.getTotalLinesCleared(),
+                                rank,
+                                maxLevel,
+                                Duration.ofSeconds(tetrisGame.getGameTime()),
+                                saveName,
+                                tetrisGame.getDifficulty(),
+                                tetrisGame.getGameMode(),
+                                completedGame,
+                                scoreDate);
+
+        // Disabled while saving so the score can't be saved twice
+        saveScoreButton.setEnabled(false);
+        Tasks.runIo(() -> ScoreRepository.saveScore(score)).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(null, "Could not save score: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                saveScoreButton.setEnabled(true);
+                return;
+            }
 
             dispose();
 
             menuPanel.leaderboardButton.disableWhileShown(new LeaderBoardFrame(score));
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Could not save score: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, EventQueue::invokeLater);
     }
 
 }
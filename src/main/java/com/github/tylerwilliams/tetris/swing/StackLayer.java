@@ -0,0 +1,165 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+
+/**
+ * Offscreen image of the placed squares in part of a {@link GameBoardGrid}, so painting the board costs one image draw
+ * for the whole stack plus a tile for each square of the active tetronimo and its ghost. Placed squares only change
+ * when a tetronimo locks or lines clear, and only the cells that changed are painted into the image again.
+ * <p>
+ * The image covers the rows in view and half a view above and below, so a board scrolled to follow the active
+ * tetronimo doesn't need a new image for every step. It's rebuilt when the view moves past it, or when the square size
+ * or display scale changes. Only to be used from the EDT.
+ */
+final class StackLayer {
+    private static final Counter REBUILDS = Metrics.counter("stackLayerRebuilds");
+    private static final Counter CELLS_UPDATED = Metrics.counter("stackLayerCellsUpdated");
+
+    private final int rows, columns;
+    private final Color[] layerColors; // placed color shown by each cell in the image, row by row over the whole grid
+    private BufferedImage image;
+    private int firstRow, lastRow, firstColumn, lastColumn; // cells the image covers
+    private int cellWidth, cellHeight, padding;
+    private double scaleX, scaleY;
+    private Color background;
+    private int boardVersion;
+    private boolean stale = true; // placed squares need reading from the game
+
+    StackLayer(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.layerColors = new Color[rows * columns];
+    }
+
+    /**
+     * Makes sure the image covers the given cells at the given square size and the scale of the graphics it's about to
+     * be drawn on, making a new image if it doesn't
+     */
+    void cover(Graphics2D g, int firstRow, int lastRow, int firstColumn, int lastColumn,
+               int cellWidth, int cellHeight, int padding, Color background) {
+        AffineTransform transform = g.getTransform();
+        if (image != null && firstRow >= this.firstRow && lastRow <= this.lastRow
+                && firstColumn >= this.firstColumn && lastColumn <= this.lastColumn
+                && cellWidth == this.cellWidth && cellHeight == this.cellHeight && padding == this.padding
+                && transform.getScaleX() == scaleX && transform.getScaleY() == scaleY
+                && background.equals(this.background)) {
+            return;
+        }
+
+        int margin = (lastRow - firstRow + 1) / 2;
+        this.firstRow = Math.max(0, firstRow - margin);
+        this.lastRow = Math.min(rows - 1, lastRow + margin);
+        this.firstColumn = firstColumn;
+        this.lastColumn = lastColumn;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.padding = padding;
+        this.scaleX = transform.getScaleX();
+        this.scaleY = transform.getScaleY();
+        this.background = background;
+
+        image = g.getDeviceConfiguration().createCompatibleImage(
+                (int) Math.ceil((this.lastColumn - this.firstColumn + 1) * cellWidth * scaleX),
+                (int) Math.ceil((this.lastRow - this.firstRow + 1) * cellHeight * scaleY),
+                Transparency.OPAQUE);
+        Graphics2D imageGraphics = image.createGraphics();
+        try {
+            imageGraphics.setColor(background);
+            imageGraphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        } finally {
+            imageGraphics.dispose();
+        }
+
+        for (int row = this.firstRow; row <= this.lastRow; row++) {
+            for (int column = this.firstColumn; column <= this.lastColumn; column++) {
+                layerColors[row * columns + column] = null;
+            }
+        }
+        stale = true;
+        REBUILDS.increment();
+    }
+
+    /**
+     * @return True if the placed squares have to be read from the game before the image can be drawn, either because
+     * the image is new or because the board has changed since they were last read
+     */
+    boolean needsUpdate(int boardVersion) {
+        return stale || boardVersion != this.boardVersion;
+    }
+
+    int getFirstRow() {
+        return firstRow;
+    }
+
+    int getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * Paints the cells whose placed color differs from what the image shows
+     *
+     * @param placedColors Placed colors of the rows the image covers, one row after another from index 0
+     * @param boardVersion Version of the board the colors were read from
+     */
+    void update(Color[] placedColors, int boardVersion, TileCache tiles) {
+        this.boardVersion = boardVersion;
+        this.stale = false;
+
+        Graphics2D imageGraphics = null;
+        try {
+            for (int row = firstRow; row <= lastRow; row++) {
+                int placedOffset = (row - firstRow) * columns;
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    Color color = placedColors[placedOffset + column];
+                    if (Objects.equals(color, layerColors[row * columns + column])) {
+                        continue;
+                    }
+
+                    if (imageGraphics == null) {
+                        imageGraphics = image.createGraphics();
+                        imageGraphics.scale(scaleX, scaleY);
+                    }
+                    int x = (column - firstColumn) * cellWidth;
+                    int y = (row - firstRow) * cellHeight;
+                    if (color == null) {
+                        imageGraphics.setColor(background);
+                        imageGraphics.fillRect(x, y, cellWidth, cellHeight);
+                    } else {
+                        tiles.paintSquare(imageGraphics, color, x, y, cellWidth, cellHeight);
+                    }
+                    layerColors[row * columns + column] = color;
+                    CELLS_UPDATED.increment();
+                }
+            }
+        } finally {
+            if (imageGraphics != null) {
+                imageGraphics.dispose();
+            }
+        }
+    }
+
+    boolean covers(int row, int column) {
+        return row >= firstRow && row <= lastRow && column >= firstColumn && column <= lastColumn;
+    }
+
+    /**
+     * @return Placed color the image shows at the given cell, which must be covered
+     */
+    Color getColor(int row, int column) {
+        return layerColors[row * columns + column];
+    }
+
+    /**
+     * Draws the image in place on the grid. Only the part inside the graphics' clip is actually copied
+     */
+    void draw(Graphics g) {
+        g.drawImage(image, padding + firstColumn * cellWidth, padding + firstRow * cellHeight,
+                (lastColumn - firstColumn + 1) * cellWidth, (lastRow - firstRow + 1) * cellHeight, null);
+    }
+}
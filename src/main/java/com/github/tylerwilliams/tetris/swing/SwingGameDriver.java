@@ -0,0 +1,46 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import com.github.tylerwilliams.tetris.GameClock;
+import com.github.tylerwilliams.tetris.TetrisGame;
+
+import javax.swing.Timer;
+import java.util.function.LongConsumer;
+
+/**
+ * Drives a {@link TetrisGame} from a Swing timer, so the game logic runs on the EDT alongside the rest of the UI. The
+ * timer only decides how often the game is ticked; how much game time passes is measured with the injected clock.
+ * Each tick hands the elapsed milliseconds to a target such as {@link TetrisGame#tick} or a replay player.
+ */
+class SwingGameDriver {
+    private static final int TICK_INTERVAL = 5;
+
+    private final LongConsumer tickTarget;
+    private final GameClock clock;
+    private final Timer timer;
+    private long lastTickTime;
+
+    SwingGameDriver(LongConsumer tickTarget, GameClock clock) {
+        this.tickTarget = tickTarget;
+        this.clock = clock;
+        this.timer = new Timer(TICK_INTERVAL, e -> tick());
+    }
+
+    void start() {
+        lastTickTime = clock.millis();
+        timer.start();
+    }
+
+    void stop() {
+        timer.stop();
+    }
+
+    boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    private void tick() {
+        long now = clock.millis();
+        tickTarget.accept(now - lastTickTime);
+        lastTickTime = now;
+    }
+}
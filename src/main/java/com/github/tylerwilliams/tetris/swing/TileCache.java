@@ -0,0 +1,112 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Squares of one {@link SquareStyle}, each rendered once per color into an image that's then copied wherever the
+ * square is painted. However elaborate the style, painting a square costs a single image draw.
+ * <p>
+ * Tiles are made for one square size and display scale at a time. When a grid is painted at a different size, or
+ * moves to a screen with a different scale, the tiles are thrown away and rendered again as they're needed. Images
+ * are compatible with the screen they're painted on, so Java2D can keep them in video memory. Only to be used from the
+ * EDT.
+ */
+final class TileCache {
+    private static final Counter TILES_RENDERED = Metrics.counter("tilesRendered");
+
+    private final SquareStyle style;
+    private final Map<Color, BufferedImage> squareTiles = new HashMap<>();
+    private BufferedImage ghostTile;
+    private int width, height;
+    private double scaleX, scaleY;
+
+    TileCache(SquareStyle style) {
+        this.style = style;
+    }
+
+    void paintSquare(Graphics g, Color color, int x, int y, int width, int height) {
+        Graphics2D g2 = (Graphics2D) g;
+        checkSize(g2, width, height);
+
+        BufferedImage tile = squareTiles.get(color);
+        if (tile == null) {
+            tile = render(g2, color);
+            squareTiles.put(color, tile);
+        }
+        draw(g2, tile, x, y);
+    }
+
+    void paintGhost(Graphics g, int x, int y, int width, int height) {
+        Graphics2D g2 = (Graphics2D) g;
+        checkSize(g2, width, height);
+
+        if (ghostTile == null) {
+            ghostTile = render(g2, null);
+        }
+        draw(g2, ghostTile, x, y);
+    }
+
+    /**
+     * Drops the tiles if they were rendered for a different square size or display scale than the one being painted
+     */
+    private void checkSize(Graphics2D g, int width, int height) {
+        AffineTransform transform = g.getTransform();
+        if (width != this.width || height != this.height
+                || transform.getScaleX() != scaleX || transform.getScaleY() != scaleY) {
+            squareTiles.clear();
+            ghostTile = null;
+            this.width = width;
+            this.height = height;
+            this.scaleX = transform.getScaleX();
+            this.scaleY = transform.getScaleY();
+        }
+    }
+
+    /**
+     * Renders a square of the given color, or a ghost square if it's null, at the resolution of the screen
+     */
+    private BufferedImage render(Graphics2D g, Color color) {
+        // Squares fill their whole area, so their tiles are opaque and copy fastest. Ghost outlines are mostly
+        // transparent and draw one pixel past the square on the bottom and right, so their tile is a pixel larger
+        BufferedImage tile = color == null
+                ? createTile(g, width + 1, height + 1, Transparency.BITMASK)
+                : createTile(g, width, height, Transparency.OPAQUE);
+
+        Graphics2D tileGraphics = tile.createGraphics();
+        try {
+            tileGraphics.scale(scaleX, scaleY);
+            if (color == null) {
+                style.paintGhost(tileGraphics, 0, 0, width, height);
+            } else {
+                style.paintSquare(tileGraphics, color, 0, 0, width, height);
+            }
+        } finally {
+            tileGraphics.dispose();
+        }
+
+        TILES_RENDERED.increment();
+        return tile;
+    }
+
+    private BufferedImage createTile(Graphics2D g, int width, int height, int transparency) {
+        return g.getDeviceConfiguration().createCompatibleImage(
+                (int) Math.ceil(width * scaleX), (int) Math.ceil(height * scaleY), transparency);
+    }
+
+    private void draw(Graphics2D g, BufferedImage tile, int x, int y) {
+        if (scaleX == 1 && scaleY == 1) {
+            g.drawImage(tile, x, y, null);
+        } else {
+            // The tile was rendered at the screen's resolution, so drawing it back at its size in user space lets the
+            // scale map its pixels onto the screen's
+            g.drawImage(tile, x, y, (int) Math.round(tile.getWidth() / scaleX), (int) Math.round(tile.getHeight() / scaleY), null);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The animations currently playing, all advanced together once per display frame. Advancing doesn't allocate, so any
+ * number of effects can play at once for little more than the work their keyframes do. Only to be used from the EDT.
+ */
+final class Timeline {
+    private final List<Animation> animations = new ArrayList<>();
+
+    void play(Animation animation, long nowNanos) {
+        animation.start(nowNanos);
+        animations.add(animation);
+    }
+
+    /**
+     * Applies the keyframes that have fallen due by the given time and drops animations that have finished or been
+     * cancelled
+     */
+    void advance(long nowNanos) {
+        int playing = animations.size();
+        int kept = 0;
+        for (int i = 0; i < playing; i++) {
+            Animation animation = animations.get(i);
+            if (!animation.isDone() && !animation.advance(nowNanos)) {
+                animations.set(kept++, animation);
+            }
+        }
+
+        // Animations started by the keyframes above were appended after the ones just advanced, so shift them down.
+        // Done by hand, since clearing a subList would allocate a view every frame
+        int size = animations.size();
+        for (int i = playing; i < size; i++) {
+            animations.set(kept++, animations.get(i));
+        }
+        while (animations.size() > kept) {
+            animations.remove(animations.size() - 1);
+        }
+    }
+
+    /**
+     * Cancels every animation that's playing. They're dropped on the next {@link #advance}
+     */
+    void cancelAll() {
+        for (int i = 0; i < animations.size(); i++) {
+            animations.get(i).cancel();
+        }
+    }
+
+    boolean isIdle() {
+        return animations.isEmpty();
+    }
+}
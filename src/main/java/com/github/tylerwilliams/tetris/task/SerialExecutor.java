@@ -0,0 +1,42 @@
+package com.github.tylerwilliams.tetris.task;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on a {@link Tasks} pool one at a time, in the order they were given. No thread is held while the queue is
+ * empty.
+ */
+final class SerialExecutor implements Executor {
+    private final Tasks.Pool pool;
+    private final Queue<Runnable> queued = new ArrayDeque<>();
+    private boolean running; // guarded by this
+
+    SerialExecutor(Tasks.Pool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public synchronized void execute(Runnable task) {
+        queued.add(task);
+        if (!running) {
+            runNext();
+        }
+    }
+
+    private synchronized void runNext() {
+        Runnable next = queued.poll();
+        running = next != null;
+        if (running) {
+            Tasks.submit(pool, () -> {
+                try {
+                    next.run();
+                } finally {
+                    runNext();
+                }
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.tylerwilliams.tetris.task;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background tasks that belong to something with a lifetime, such as one game, and should stop when it ends. Tasks run
+ * on the usual {@link Tasks} pools, and {@link #cancelAll()} cancels every one of them that hasn't finished yet,
+ * interrupting those already running. Anything waiting on a cancelled task sees a
+ * {@link java.util.concurrent.CancellationException}, so results that arrive after their game is over are never used.
+ */
+public final class TaskScope {
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+
+    TaskScope() {
+    }
+
+    public <T> CompletableFuture<T> callIo(Callable<T> task) {
+        return track(Tasks.callIo(task));
+    }
+
+    public CompletableFuture<Void> runIo(Tasks.Task task) {
+        return track(Tasks.runIo(task));
+    }
+
+    public <T> CompletableFuture<T> callCompute(Callable<T> task) {
+        return track(Tasks.callCompute(task));
+    }
+
+    public CompletableFuture<Void> runCompute(Tasks.Task task) {
+        return track(Tasks.runCompute(task));
+    }
+
+    public void cancelAll() {
+        for (CompletableFuture<?> task : pending) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * @return Number of tasks in this scope that haven't finished yet
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> task) {
+        pending.add(task);
+        task.whenComplete((value, error) -> pending.remove(task));
+        return task;
+    }
+}
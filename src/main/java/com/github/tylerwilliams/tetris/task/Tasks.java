@@ -0,0 +1,168 @@
+package com.github.tylerwilliams.tetris.task;
+
+import com.github.tylerwilliams.tetris.metrics.Counter;
+import com.github.tylerwilliams.tetris.metrics.Histogram;
+import com.github.tylerwilliams.tetris.metrics.Metrics;
+
+import java.awt.EventQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The application's pools for background tasks:
+ * <ul>
+ *     <li>I/O, for work that spends its time blocked, like reading and writing score, replay and save files or
+ *     decoding audio. It has a fixed number of threads, more than there are cores since they're mostly waiting, and
+ *     lets them go when they've been idle for a while. Tasks beyond that wait their turn in a queue</li>
+ *     <li>Compute, a platform pool with a thread for each core but one, for CPU-bound work like simulated batches of
+ *     bot games. The spare core is left for the EDT and the game loop</li>
+ * </ul>
+ * A few threads with jobs of their own are started elsewhere rather than borrowed from these pools: the game loop, and
+ * the broker's background event consumers, which spend their lives waiting on the next tick or event.
+ * Tasks are submitted as {@link Callable}s or {@link Task}s and come back as {@link CompletableFuture}s. Cancelling one
+ * interrupts its thread if it's already running. Work that belongs to something with a lifetime, such as a game, is
+ * submitted through a {@link TaskScope} so it can all be cancelled together.
+ * <p>
+ * Metrics report the tasks running in each pool and how long tasks waited before starting. Code about to block on I/O
+ * can call {@link #checkBlockingIo()} to count blocking I/O done on the EDT, which should stay at zero.
+ */
+public final class Tasks {
+    private static final int IO_THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    private static final int COMPUTE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final long IO_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    private static final Counter BLOCKING_IO_ON_EDT = Metrics.counter("blockingIoOnEventDispatchThread");
+
+    private static final Pool IO = new Pool("io", newIoExecutor());
+    private static final Pool COMPUTE = new Pool("cpu",
+            Executors.newFixedThreadPool(COMPUTE_THREADS, daemonThreads("tetris-cpu-")));
+
+    /**
+     * A task that returns nothing but may throw, like most file writes
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private Tasks() {
+    }
+
+    public static <T> CompletableFuture<T> callIo(Callable<T> task) {
+        return submit(IO, task);
+    }
+
+    public static CompletableFuture<Void> runIo(Task task) {
+        return submit(IO, callable(task));
+    }
+
+    public static <T> CompletableFuture<T> callCompute(Callable<T> task) {
+        return submit(COMPUTE, task);
+    }
+
+    public static CompletableFuture<Void> runCompute(Task task) {
+        return submit(COMPUTE, callable(task));
+    }
+
+    /**
+     * @return Number of threads in the compute pool, for splitting work into enough pieces to keep them all busy
+     */
+    public static int getComputeThreads() {
+        return COMPUTE_THREADS;
+    }
+
+    /**
+     * @return A new executor that runs I/O tasks one at a time in the order they were given, for work where a later
+     * task must never overtake an earlier one, such as successive saves of the same file
+     */
+    public static Executor newSerialIoExecutor() {
+        return new SerialExecutor(IO);
+    }
+
+    public static TaskScope newScope() {
+        return new TaskScope();
+    }
+
+    /**
+     * Counts a blocking I/O operation if it's about to happen on the EDT. Call it at the start of anything that reads
+     * or writes files
+     */
+    public static void checkBlockingIo() {
+        if (EventQueue.isDispatchThread()) {
+            BLOCKING_IO_ON_EDT.increment();
+        }
+    }
+
+    static <T> CompletableFuture<T> submit(Pool pool, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long submitNanos = System.nanoTime();
+
+        Future<?> execution = pool.executor.submit(() -> {
+            pool.queueLatency.recordSince(submitNanos);
+            if (result.isDone()) {
+                return; // cancelled before it got the chance to start
+            }
+
+            pool.active.incrementAndGet();
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                pool.active.decrementAndGet();
+            }
+        });
+
+        // CompletableFuture.cancel doesn't interrupt anything by itself, so pass cancellation on to the thread
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                execution.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    static Callable<Void> callable(Task task) {
+        return () -> {
+            task.run();
+            return null;
+        };
+    }
+
+    private static ExecutorService newIoExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(IO_THREADS, IO_THREADS,
+                IO_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreads("tetris-io-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static final class Pool {
+        final ExecutorService executor;
+        final AtomicInteger active = new AtomicInteger();
+        final Histogram queueLatency;
+
+        Pool(String name, ExecutorService executor) {
+            this.executor = executor;
+            this.queueLatency = Metrics.histogram(name + "TaskQueueLatency");
+            Metrics.gauge(name + "TasksActive", active::get);
+        }
+    }
+}
@@ -1,3 +1,4 @@
 module tylerwilliams.tetris {
     requires java.desktop;
+    requires java.management;
 }
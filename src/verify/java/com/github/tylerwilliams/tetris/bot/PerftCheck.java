@@ -0,0 +1,55 @@
+package com.github.tylerwilliams.tetris.bot;
+
+import com.github.tylerwilliams.tetris.TetronimoType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pins {@link Perft} placement counts on the empty classic board, so a change in what the move generator finds fails
+ * the build. Counts are checked one piece deep for every tetronimo, and a few pieces deep for the pieces a fixed seed
+ * draws. If a change to the generator is meant to find different placements, run gradle perft and update the counts
+ * here along with it.
+ */
+public final class PerftCheck {
+    private static final long SEED = 0;
+    private static final long[] SEEDED_COUNTS = {34, 1180, 21247}; // T, Inverted L, Inverted S
+
+    private final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) {
+        PerftCheck check = new PerftCheck();
+        check.checkSinglePieces();
+        check.checkSeededPieces();
+
+        if (!check.failures.isEmpty()) {
+            check.failures.forEach(System.err::println);
+            throw new IllegalStateException(check.failures.size() + " perft counts changed");
+        }
+        System.out.println("Perft counts match");
+    }
+
+    private void checkSinglePieces() {
+        for (TetronimoType type : TetronimoType.values()) {
+            long expected = switch (type) {
+                case BOX -> 9;
+                case LINE, S, INVERTED_S -> 17;
+                case L, INVERTED_L, T -> 34;
+            };
+            expect(type + " alone", expected, new Perft(new TetronimoType[]{type}).count(new SearchBoard(), 1));
+        }
+    }
+
+    private void checkSeededPieces() {
+        TetronimoType[] pieces = Perft.drawPieces(SEED, SEEDED_COUNTS.length);
+        for (int depth = 1; depth <= SEEDED_COUNTS.length; depth++) {
+            expect("seed " + SEED + " depth " + depth, SEEDED_COUNTS[depth - 1], new Perft(pieces).count(new SearchBoard(), depth));
+        }
+    }
+
+    private void expect(String name, long expected, long actual) {
+        if (actual != expected) {
+            failures.add(name + ": expected " + expected + " placements but found " + actual);
+        }
+    }
+}
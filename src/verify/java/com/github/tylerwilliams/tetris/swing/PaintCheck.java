@@ -0,0 +1,245 @@
+package com.github.tylerwilliams.tetris.swing;
+
+import com.github.tylerwilliams.tetris.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that the board's cached painting shows exactly what painting every square directly with its
+ * {@link SquareStyle} would. Each tile in a {@link TileCache} is compared with the square it stands for, then several
+ * seeded games are played with random inputs while one {@link GameBoardGrid} is kept up to date by
+ * {@link GameBoardGrid#repaintChanges()} and another is painted in full after every step. Both have to match a direct
+ * rendering of the game pixel for pixel.
+ */
+public final class PaintCheck {
+    private static final int CELL_DIMENSION = 30;
+    private static final int[] TILE_SIZES = {5, 17, 30, 40};
+    private static final long[] SEEDS = {1, 2, 3, 4, 5};
+    private static final int STEPS_PER_GAME = 600;
+    private static final int STACK_HEIGHT = 8;
+
+    private final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) {
+        PaintCheck check = new PaintCheck();
+        check.checkTiles();
+        for (long seed : SEEDS) {
+            check.checkGame(seed);
+        }
+
+        if (!check.failures.isEmpty()) {
+            check.failures.forEach(System.err::println);
+            throw new IllegalStateException(check.failures.size() + " paint checks failed");
+        }
+        System.out.println("Cached painting matches direct painting");
+    }
+
+    private void checkTiles() {
+        TileCache tiles = new TileCache(SquareStyle.DEFAULT);
+        for (int size : TILE_SIZES) {
+            for (TetronimoType type : TetronimoType.values()) {
+                checkTile(tiles, type.getColor(), size);
+            }
+            checkTile(tiles, null, size);
+        }
+    }
+
+    /**
+     * Paints one square, or a ghost square if the color is null, from a tile and directly, and compares the two
+     */
+    private void checkTile(TileCache tiles, Color color, int size) {
+        int imageSize = size * 3;
+        BufferedImage direct = newImage(imageSize, imageSize, Color.LIGHT_GRAY);
+        BufferedImage tiled = newImage(imageSize, imageSize, Color.LIGHT_GRAY);
+
+        Graphics2D directGraphics = direct.createGraphics();
+        Graphics2D tiledGraphics = tiled.createGraphics();
+        try {
+            if (color == null) {
+                SquareStyle.DEFAULT.paintGhost(directGraphics, size, size, size, size);
+                tiles.paintGhost(tiledGraphics, size, size, size, size);
+            } else {
+                SquareStyle.DEFAULT.paintSquare(directGraphics, color, size, size, size, size);
+                tiles.paintSquare(tiledGraphics, color, size, size, size, size);
+            }
+        } finally {
+            directGraphics.dispose();
+            tiledGraphics.dispose();
+        }
+
+        compare((color == null ? "ghost" : color.toString()) + " tile at size " + size, direct, tiled);
+    }
+
+    private void checkGame(long seed) {
+        TetrisGame game = newGame(seed);
+        IncrementalGrid incremental = new IncrementalGrid(game);
+        GameBoardGrid full = new GameBoardGrid(game, CELL_DIMENSION);
+        full.setSize(full.getPreferredSize());
+        paintFully(incremental, incremental.image);
+
+        GameRandom random = new GameRandom(seed);
+        int failuresBefore = failures.size();
+        for (int step = 0; step < STEPS_PER_GAME && game.isRunning() && failures.size() == failuresBefore; step++) {
+            String input = play(game, random);
+            incremental.repaintChanges();
+
+            BufferedImage fullImage = newImage(incremental.image.getWidth(), incremental.image.getHeight(), Color.BLACK);
+            paintFully(full, fullImage);
+            BufferedImage direct = paintDirectly(game, incremental);
+
+            String name = "seed " + seed + " step " + step + " (" + input + ")";
+            compare(name + " incremental paint", direct, incremental.image);
+            compare(name + " full paint", direct, fullImage);
+        }
+    }
+
+    /**
+     * A game with a stack of rows that are full apart from two middle columns, so random play clears lines now and
+     * then and pieces land on squares the stack layer already shows
+     */
+    private static TetrisGame newGame(long seed) {
+        TetrisGame game = new TetrisGame(seed, BoardSize.CLASSIC);
+        game.setDifficulty(Difficulty.EASY);
+        game.setGameMode(GameMode.FREE_PLAY);
+        game.reset(seed);
+
+        GameRandom random = new GameRandom(seed);
+        BoardSize boardSize = game.getBoardSize();
+        for (int row = boardSize.totalRows() - STACK_HEIGHT; row < boardSize.totalRows(); row++) {
+            for (int column = 0; column < boardSize.columns(); column++) {
+                if (column != boardSize.columns() / 2 - 1 && column != boardSize.columns() / 2) {
+                    game.setColor(row, column, TetronimoType.getRandomColor(random));
+                }
+            }
+        }
+        return game;
+    }
+
+    /**
+     * @return Name of the random input just applied to the game
+     */
+    private static String play(TetrisGame game, GameRandom random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                game.moveActiveTetronimoLeft();
+                return "left";
+            case 1:
+                game.moveActiveTetronimoRight();
+                return "right";
+            case 2:
+                game.rotateActiveTetronimo(Rotation.CLOCKWISE);
+                return "rotate";
+            case 3:
+                game.tryMoveActiveTetronimoDown();
+                return "down";
+            case 4:
+                if (random.nextInt(3) == 0) {
+                    game.dropCurrentTetronimo();
+                    return "drop";
+                }
+                game.tick(16);
+                return "tick";
+            default:
+                game.tick(16);
+                return "tick";
+        }
+    }
+
+    private static void paintFully(GameBoardGrid grid, BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setClip(0, 0, image.getWidth(), image.getHeight());
+            grid.paintComponent(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Paints every square the game shows straight from the style, without tiles, a stack layer or a record of what was
+     * painted before
+     */
+    private static BufferedImage paintDirectly(TetrisGame game, GameBoardGrid grid) {
+        int rows = grid.getRows();
+        int columns = grid.getColumns();
+        BufferedImage image = newImage(grid.getWidth(), grid.getHeight(), grid.getBackground());
+        Color[] colors = new Color[rows * columns];
+        game.copySquareColors(TetrisGame.LEADING_OVERFLOW_ROWS, rows - 1 + TetrisGame.LEADING_OVERFLOW_ROWS, colors);
+
+        Graphics2D g = image.createGraphics();
+        try {
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    Color color = colors[row * columns + column];
+                    int x = column * CELL_DIMENSION + grid.getPadding();
+                    int y = row * CELL_DIMENSION + grid.getPadding();
+                    if (color == TetrisGame.GHOST_COLOR) {
+                        SquareStyle.DEFAULT.paintGhost(g, x, y, CELL_DIMENSION, CELL_DIMENSION);
+                    } else if (color != null) {
+                        SquareStyle.DEFAULT.paintSquare(g, color, x, y, CELL_DIMENSION, CELL_DIMENSION);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage newImage(int width, int height, Color background) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(background);
+            g.fillRect(0, 0, width, height);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private void compare(String name, BufferedImage expected, BufferedImage actual) {
+        int[] expectedPixels = ((DataBufferInt) expected.getRaster().getDataBuffer()).getData();
+        int[] actualPixels = ((DataBufferInt) actual.getRaster().getDataBuffer()).getData();
+        int mismatch = Arrays.mismatch(expectedPixels, actualPixels);
+        if (mismatch >= 0) {
+            failures.add(String.format("%s: pixel %d,%d is %06x but should be %06x", name,
+                    mismatch % expected.getWidth(), mismatch / expected.getWidth(),
+                    actualPixels[mismatch] & 0xFFFFFF, expectedPixels[mismatch] & 0xFFFFFF));
+        }
+    }
+
+    /**
+     * Board grid that behaves as if it were on screen, painting the regions it repaints straight into an image
+     */
+    private static final class IncrementalGrid extends GameBoardGrid {
+        final BufferedImage image;
+
+        IncrementalGrid(TetrisGame game) {
+            super(game, CELL_DIMENSION);
+            setSize(getPreferredSize());
+            image = newImage(getWidth(), getHeight(), Color.BLACK);
+        }
+
+        @Override
+        public boolean isShowing() {
+            return true;
+        }
+
+        @Override
+        public void paintImmediately(int x, int y, int width, int height) {
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setClip(x, y, width, height);
+                paintComponent(g);
+            } finally {
+                g.dispose();
+            }
+        }
+    }
+}